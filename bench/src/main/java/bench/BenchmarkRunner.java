@@ -0,0 +1,41 @@
+/**
+ * Class containing the entry point for running the benchmarks
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line options and writes
+ * the results as JSON, to jmh-result.json unless -rff names another file,
+ * so runs can be compared.
+ *
+ * Usage: java -jar bench/target/benchmarks.jar [JMH options] [pattern]
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Runs the benchmarks
+     * @param args JMH command line options
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (cmd.getIncludes().isEmpty()) {
+            options.include("bench\\..*");
+        }
+        if (!cmd.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmd.getResult().hasValue()) {
+            options.result("jmh-result.json");
+        }
+        new Runner(options.build()).run();
+    }
+}
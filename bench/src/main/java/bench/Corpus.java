@@ -0,0 +1,86 @@
+/**
+ * Class containing the fixed set of positions used by the benchmarks
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package bench;
+
+import core.Bitboard;
+import core.CheckersLogic;
+import core.CheckersLogic.Player;
+import core.Move;
+import core.MoveGenerator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Positions are reached by random play from the starting position with a
+ * fixed seed, so every run benchmarks the same positions. Only quiet
+ * positions, where the side to move has moves but no jump, are kept. The
+ * filter fixes which random games make up the set, so changing it would
+ * change every position and leave new results no longer comparable with
+ * the ones recorded before.
+ */
+public class Corpus {
+
+    //Number of positions in the corpus
+    public static final int SIZE = 64;
+
+    //Seed for the random games that produce the corpus
+    public static final long SEED = 0x5EEDL;
+
+    //Positions in both board formats
+    public static final Bitboard[] POSITIONS = new Bitboard[SIZE];
+    public static final char[][][] BOARDS = new char[SIZE][][];
+
+    //Player to move in each position and a legal move for them in console notation
+    public static final Player[] TO_MOVE = new Player[SIZE];
+    public static final String[] MOVES = new String[SIZE];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int[] list = new int[MoveGenerator.MAX_MOVES];
+        int found = 0;
+        while (found < SIZE) {
+            Bitboard b = Bitboard.initial();
+            int plies = 4 + random.nextInt(36);
+            boolean over = false;
+            for (int i = 0; i < plies && !over; i++) {
+                int n = MoveGenerator.generate(b, list);
+                if (n == 0) {
+                    over = true;
+                } else {
+                    b.make(list[random.nextInt(n)]);
+                }
+            }
+            int n = MoveGenerator.generate(b, list);
+            if (over || n == 0 || Move.isJump(list[0]) || b.kings != 0) {
+                continue;
+            }
+            POSITIONS[found] = b;
+            BOARDS[found] = b.toChars();
+            TO_MOVE[found] = new Player(b.side == Bitboard.X ? "Player X" : "Player O", Bitboard.MEN[b.side]);
+            TO_MOVE[found].num_pieces = b.count(b.side);
+            MOVES[found] = Move.toString(list[random.nextInt(n)]);
+            found++;
+        }
+    }
+
+    /**
+     * Copies a char[][] board so a benchmark can change it
+     * @param board board to copy
+     * @param into board to copy into
+     */
+    public static void copy(char[][] board, char[][] into) {
+        for (int i = 0; i < board.length; i++) {
+            System.arraycopy(board[i], 0, into[i], 0, board[i].length);
+        }
+    }
+
+    /**
+     * @return an empty labelled board to copy corpus boards into
+     */
+    public static char[][] scratchBoard() {
+        return CheckersLogic.create_board();
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Class containing benchmarks for detecting the end of a game
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package bench;
+
+import core.Bitboard;
+import core.CheckersLogic;
+import core.MoveGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameOverBenchmark {
+
+    private final int[] list = new int[MoveGenerator.MAX_MOVES];
+
+    /**
+     * char[][] path: CheckersLogic.game_over converting the board for the rules API
+     */
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public int charBoardGameOver() {
+        int over = 0;
+        for (int i = 0; i < Corpus.SIZE; i++) {
+            if (CheckersLogic.game_over(Corpus.BOARDS[i], Corpus.TO_MOVE[i])) {
+                over++;
+            }
+        }
+        return over;
+    }
+
+    /**
+     * Bitboard path: the side to move has lost when it has no legal move
+     */
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public int bitboardGameOver() {
+        int over = 0;
+        for (int i = 0; i < Corpus.SIZE; i++) {
+            Bitboard b = Corpus.POSITIONS[i];
+            if (MoveGenerator.generate(b, list) == 0) {
+                over++;
+            }
+        }
+        return over;
+    }
+
+    /**
+     * Mask path: whole-board shifts find the pieces that can move, as Game does after each move
+     */
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public int maskGameOver() {
+        int over = 0;
+        for (int i = 0; i < Corpus.SIZE; i++) {
+            Bitboard b = Corpus.POSITIONS[i];
+            if (!MoveGenerator.hasMove(b, b.side)) {
+                over++;
+            }
+        }
+        return over;
+    }
+}
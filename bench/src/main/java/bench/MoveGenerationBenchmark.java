@@ -0,0 +1,50 @@
+/**
+ * Class containing benchmarks for legal move generation
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package bench;
+
+import core.Bitboard;
+import core.MoveGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+    private final int[] list = new int[MoveGenerator.MAX_MOVES];
+
+    /**
+     * Generates every legal move in each corpus position
+     */
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public int generate() {
+        int total = 0;
+        for (int i = 0; i < Corpus.SIZE; i++) {
+            total += MoveGenerator.generate(Corpus.POSITIONS[i], list);
+        }
+        return total;
+    }
+
+    /**
+     * Converts each corpus board from char[][] and then generates its moves
+     */
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public int convertAndGenerate() {
+        int total = 0;
+        for (int i = 0; i < Corpus.SIZE; i++) {
+            Bitboard b = Bitboard.fromChars(Corpus.BOARDS[i]);
+            total += MoveGenerator.generate(b, Corpus.POSITIONS[i].side, list);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Class containing benchmarks for random games played to the end
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package bench;
+
+import core.Bitboard;
+import core.MoveGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayoutBenchmark {
+
+    //Games longer than this are stopped, kings can shuffle forever
+    private static final int MAX_PLIES = 200;
+
+    private final Bitboard board = new Bitboard();
+    private final int[] list = new int[MoveGenerator.MAX_MOVES];
+    private SplittableRandom random;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        random = new SplittableRandom(Corpus.SEED);
+    }
+
+    /**
+     * Plays a random game from each corpus position until it ends
+     */
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public int playout() {
+        int plies = 0;
+        for (int i = 0; i < Corpus.SIZE; i++) {
+            board.set(Corpus.POSITIONS[i]);
+            for (int p = 0; p < MAX_PLIES; p++) {
+                int n = MoveGenerator.generate(board, list);
+                if (n == 0) {
+                    break;
+                }
+                board.make(list[random.nextInt(n)]);
+                plies++;
+            }
+        }
+        return plies;
+    }
+}
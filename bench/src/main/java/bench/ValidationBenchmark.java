@@ -0,0 +1,92 @@
+/**
+ * Class containing benchmarks for parsing and validating a player's move
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package bench;
+
+import core.Bitboard;
+import core.CheckersLogic;
+import core.Move;
+import core.MoveGenerator;
+import core.MoveValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+
+    private char[][] scratch;
+    private final Bitboard board = new Bitboard();
+    private final int[] list = new int[MoveGenerator.MAX_MOVES];
+    private final MoveValidator validator = new MoveValidator();
+
+    @Setup
+    public void setup() {
+        scratch = Corpus.scratchBoard();
+    }
+
+    /**
+     * char[][] path: CheckersLogic.isValid on a copy of each corpus board,
+     * converting the board for the rules API on every call
+     */
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public int charBoardIsValid() {
+        int valid = 0;
+        for (int i = 0; i < Corpus.SIZE; i++) {
+            Corpus.copy(Corpus.BOARDS[i], scratch);
+            if (CheckersLogic.isValid(scratch, Corpus.MOVES[i], Corpus.TO_MOVE[i])) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Bitboard path: match the notation against the generated legal moves and play it
+     */
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public int bitboardValidate() {
+        int valid = 0;
+        for (int i = 0; i < Corpus.SIZE; i++) {
+            board.set(Corpus.POSITIONS[i]);
+            int n = MoveGenerator.generate(board, list);
+            for (int j = 0; j < n; j++) {
+                if (Move.toString(list[j]).equals(Corpus.MOVES[i])) {
+                    board.make(list[j]);
+                    valid++;
+                    break;
+                }
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Validator path: parse the notation without allocating and match it
+     * against the legal moves worked out once per position
+     */
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public int validatorFind() {
+        int valid = 0;
+        for (int i = 0; i < Corpus.SIZE; i++) {
+            board.set(Corpus.POSITIONS[i]);
+            validator.setPosition(board);
+            int move = validator.find(Corpus.MOVES[i]);
+            if (move != Move.NONE) {
+                board.make(move);
+                valid++;
+            }
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,455 @@
+/**
+ * Class containing a bitboard representation of a checkers board
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+public class Bitboard {
+
+    //Side indexes used for the occupancy masks
+    public static final int X = 0;
+    public static final int O = 1;
+
+    //Characters used by the char[][] board for men and kings of each side
+    public static final char[] MEN = {'x', 'o'};
+    public static final char[] KINGS = {'X', 'O'};
+    public static final char EMPTY = '_';
+
+    //Number of playable squares on the board
+    public static final int SQUARES = 32;
+
+    /**
+     * Occupancy mask for each side indexed by X or O. Bit n is set when
+     * playable square n holds a piece of that side.
+     */
+    public final int[] pieces = new int[2];
+
+    /**
+     * Occupancy mask of the squares holding a king of either side
+     */
+    public int kings;
+
+    /**
+     * Side to move, X or O
+     */
+    public int side = X;
+
+    /**
+     * Zobrist hash of the position, kept up to date by make and unmake.
+     * Call rehash after changing the masks or side directly.
+     */
+    public long hash;
+
+    /**
+     * Sum of Evaluation.PSQ over every piece, from the point of view of X,
+     * kept up to date by make and unmake. rehash recomputes it with the hash.
+     */
+    public int psq;
+
+    /**
+     * Creates an empty board
+     */
+    public Bitboard() {
+    }
+
+    /**
+     * Creates a board from occupancy masks
+     * @param x squares holding x pieces
+     * @param o squares holding o pieces
+     * @param kings squares holding kings of either side
+     */
+    public Bitboard(int x, int o, int kings) {
+        pieces[X] = x;
+        pieces[O] = o;
+        this.kings = kings;
+        rehash();
+    }
+
+    /**
+     * Creates a board set up for a new game, matching CheckersLogic.fill_board
+     * @return board with x on rows 1-3 and o on rows 6-8
+     */
+    public static Bitboard initial() {
+        return new Bitboard(0x00000FFF, 0xFFF00000, 0);
+    }
+
+    /**
+     * Converts a row and column of the char[][] board to a playable square
+     * @param row board row from 1 to 8
+     * @param col board column from 1 (a) to 8 (h)
+     * @return square from 0 to 31 or -1 if the cell is not playable
+     */
+    public static int square(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8 || ((row + col) & 1) != 0) {
+            return -1;
+        }
+        return ((row - 1) << 2) + ((col - 1) >> 1);
+    }
+
+    /**
+     * Finds the char[][] board row of a square
+     * @param sq playable square from 0 to 31
+     * @return board row from 1 to 8
+     */
+    public static int row(int sq) {
+        return (sq >> 2) + 1;
+    }
+
+    /**
+     * Finds the char[][] board column of a square
+     * @param sq playable square from 0 to 31
+     * @return board column from 1 to 8
+     */
+    public static int col(int sq) {
+        return ((sq & 3) << 1) + 1 + ((sq >> 2) & 1);
+    }
+
+    /**
+     * Reads a char[][] board created by CheckersLogic.create_board
+     * @param board 2D array game board with labels in row and column 0
+     * @return bitboard holding the same pieces
+     */
+    public static Bitboard fromChars(char[][] board) {
+        Bitboard b = new Bitboard();
+        for (int sq = 0; sq < SQUARES; sq++) {
+            char c = board[row(sq)][col(sq)];
+            int bit = 1 << sq;
+            if (c == MEN[X] || c == KINGS[X]) {
+                b.pieces[X] |= bit;
+            } else if (c == MEN[O] || c == KINGS[O]) {
+                b.pieces[O] |= bit;
+            }
+            if (c == KINGS[X] || c == KINGS[O]) {
+                b.kings |= bit;
+            }
+        }
+        b.rehash();
+        return b;
+    }
+
+    /**
+     * Writes the pieces of this board into a char[][] board, leaving labels alone
+     * @param board 2D array game board with labels in row and column 0
+     */
+    public void toChars(char[][] board) {
+        for (int sq = 0; sq < SQUARES; sq++) {
+            board[row(sq)][col(sq)] = pieceAt(sq);
+        }
+    }
+
+    /**
+     * Creates a labelled char[][] board holding the pieces of this board
+     * @return 2D array game board in the format used by CheckersLogic
+     */
+    public char[][] toChars() {
+        char[][] board = CheckersLogic.create_board();
+        toChars(board);
+        return board;
+    }
+
+    /**
+     * Reads a position in PDN FEN format, e.g. B:W21-32:B1-12 for a new game.
+     * Black is x and White is o, kings are prefixed with K.
+     * @param fen position string
+     * @return board holding the position
+     * @throws IllegalArgumentException if the string is not a valid position
+     */
+    public static Bitboard fromFen(String fen) {
+        Bitboard b = new Bitboard();
+        String[] fields = fen.trim().split(":");
+        if (fields.length < 1 || fields[0].isEmpty()) {
+            throw new IllegalArgumentException("Missing side to move in FEN: " + fen);
+        }
+        b.side = side(fields[0].charAt(0), fen);
+        for (int i = 1; i < fields.length; i++) {
+            String field = fields[i].trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            int side = side(field.charAt(0), fen);
+            for (String token : field.substring(1).split(",")) {
+                token = token.trim();
+                if (token.isEmpty()) {
+                    continue;
+                }
+                boolean king = token.charAt(0) == 'K';
+                if (king) {
+                    token = token.substring(1);
+                }
+                int dash = token.indexOf('-');
+                try {
+                    int first = Integer.parseInt(dash < 0 ? token : token.substring(0, dash));
+                    int last = dash < 0 ? first : Integer.parseInt(token.substring(dash + 1));
+                    for (int n = first; n <= last; n++) {
+                        if (n < 1 || n > SQUARES) {
+                            throw new IllegalArgumentException("Square out of range in FEN: " + fen);
+                        }
+                        int bit = 1 << Move.fromStandard(n);
+                        b.pieces[side] |= bit;
+                        if (king) {
+                            b.kings |= bit;
+                        }
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid square in FEN: " + fen);
+                }
+            }
+        }
+        b.rehash();
+        return b;
+    }
+
+    /**
+     * Translates a PDN colour letter into a side
+     * @param c 'B' for x or 'W' for o
+     * @param fen position string, for the error message
+     * @return X or O
+     */
+    private static int side(char c, String fen) {
+        if (c == 'B' || c == 'b') {
+            return X;
+        } else if (c == 'W' || c == 'w') {
+            return O;
+        }
+        throw new IllegalArgumentException("Invalid colour in FEN: " + fen);
+    }
+
+    /**
+     * Writes the position in PDN FEN format
+     * @return position string readable by fromFen
+     */
+    public String toFen() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(side == X ? 'B' : 'W');
+        for (int s : new int[] {O, X}) {
+            sb.append(':').append(s == X ? 'B' : 'W');
+            boolean first = true;
+            for (int n = 1; n <= SQUARES; n++) {
+                int bit = 1 << Move.fromStandard(n);
+                if ((pieces[s] & bit) != 0) {
+                    if (!first) {
+                        sb.append(',');
+                    }
+                    if ((kings & bit) != 0) {
+                        sb.append('K');
+                    }
+                    sb.append(n);
+                    first = false;
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Finds the piece on a square in char[][] board format
+     * @param sq playable square from 0 to 31
+     * @return 'x', 'o', 'X', 'O' or '_' for an empty square
+     */
+    public char pieceAt(int sq) {
+        int bit = 1 << sq;
+        int side;
+        if ((pieces[X] & bit) != 0) {
+            side = X;
+        } else if ((pieces[O] & bit) != 0) {
+            side = O;
+        } else {
+            return EMPTY;
+        }
+        return (kings & bit) != 0 ? KINGS[side] : MEN[side];
+    }
+
+    /**
+     * @return mask of squares holding no piece
+     */
+    public int empty() {
+        return ~(pieces[X] | pieces[O]);
+    }
+
+    /**
+     * @param side X or O
+     * @return number of pieces the side has on the board
+     */
+    public int count(int side) {
+        return Integer.bitCount(pieces[side]);
+    }
+
+    /**
+     * Turns the board around and swaps the colours, so the side to move
+     * changes from X to O or back while the position stays the same game.
+     * Squares map from n to 31 - n, which is a 180 degree rotation.
+     */
+    public void flip() {
+        int x = pieces[X];
+        pieces[X] = Integer.reverse(pieces[O]);
+        pieces[O] = Integer.reverse(x);
+        kings = Integer.reverse(kings);
+        side ^= 1;
+        rehash();
+    }
+
+    /**
+     * Recomputes the hash and piece-square sum from the masks and side to move
+     */
+    public void rehash() {
+        hash = Zobrist.hash(this);
+        psq = Evaluation.psq(this);
+    }
+
+    /**
+     * Copies the pieces of another board into this one
+     * @param other board to copy
+     */
+    public void set(Bitboard other) {
+        pieces[X] = other.pieces[X];
+        pieces[O] = other.pieces[O];
+        kings = other.kings;
+        side = other.side;
+        hash = other.hash;
+        psq = other.psq;
+    }
+
+    /**
+     * @return a new board holding the same pieces
+     */
+    public Bitboard copy() {
+        Bitboard b = new Bitboard();
+        b.set(this);
+        return b;
+    }
+
+    /**
+     * Plays a move for the side to move and passes the turn. Square 0 can never
+     * be jumped, so bit 0 of the returned value records a crowning.
+     * @param move packed legal move
+     * @return value to hand back to unmake, holding the captured kings
+     */
+    public int make(int move) {
+        int from = Move.from(move), to = Move.to(move);
+        int fromBit = 1 << from;
+        int toBit = 1 << to;
+        int undo = 0;
+        if (Move.isJump(move)) {
+            int captured = Move.captures(move);
+            undo = captured & kings;
+            hash ^= captureKeys(side ^ 1, captured, undo);
+            psq -= captureValues(side ^ 1, captured, undo);
+            pieces[side ^ 1] &= ~captured;
+            kings &= ~captured;
+        }
+        pieces[side] = (pieces[side] & ~fromBit) | toBit;
+        if ((kings & fromBit) != 0) {
+            kings = (kings & ~fromBit) | toBit;
+            hash ^= Zobrist.PIECE[side + 2][from] ^ Zobrist.PIECE[side + 2][to];
+            psq += Evaluation.PSQ[side + 2][to] - Evaluation.PSQ[side + 2][from];
+        } else if ((MoveGenerator.PROMOTION[side] & toBit) != 0) {
+            kings |= toBit;
+            undo |= 1;
+            hash ^= Zobrist.PIECE[side][from] ^ Zobrist.PIECE[side + 2][to];
+            psq += Evaluation.PSQ[side + 2][to] - Evaluation.PSQ[side][from];
+        } else {
+            hash ^= Zobrist.PIECE[side][from] ^ Zobrist.PIECE[side][to];
+            psq += Evaluation.PSQ[side][to] - Evaluation.PSQ[side][from];
+        }
+        side ^= 1;
+        hash ^= Zobrist.SIDE;
+        return undo;
+    }
+
+    /**
+     * Takes back the last move played with make
+     * @param move packed move that was played
+     * @param undo value returned by make for that move
+     */
+    public void unmake(int move, int undo) {
+        int from = Move.from(move), to = Move.to(move);
+        int fromBit = 1 << from;
+        int toBit = 1 << to;
+        side ^= 1;
+        hash ^= Zobrist.SIDE;
+        pieces[side] = (pieces[side] & ~toBit) | fromBit;
+        if ((undo & 1) != 0) {
+            kings &= ~toBit;
+            hash ^= Zobrist.PIECE[side][from] ^ Zobrist.PIECE[side + 2][to];
+            psq -= Evaluation.PSQ[side + 2][to] - Evaluation.PSQ[side][from];
+        } else if ((kings & toBit) != 0) {
+            kings = (kings & ~toBit) | fromBit;
+            hash ^= Zobrist.PIECE[side + 2][from] ^ Zobrist.PIECE[side + 2][to];
+            psq -= Evaluation.PSQ[side + 2][to] - Evaluation.PSQ[side + 2][from];
+        } else {
+            hash ^= Zobrist.PIECE[side][from] ^ Zobrist.PIECE[side][to];
+            psq -= Evaluation.PSQ[side][to] - Evaluation.PSQ[side][from];
+        }
+        if (Move.isJump(move)) {
+            int captured = Move.captures(move);
+            pieces[side ^ 1] |= captured;
+            kings |= undo & ~1;
+            hash ^= captureKeys(side ^ 1, captured, undo & ~1);
+            psq += captureValues(side ^ 1, captured, undo & ~1);
+        }
+    }
+
+    /**
+     * Combines the hash keys of captured pieces
+     * @param opp side the pieces belong to
+     * @param captured mask of captured pieces
+     * @param capturedKings mask of the captured pieces that are kings
+     * @return XOR of the keys of every captured piece
+     */
+    private static long captureKeys(int opp, int captured, int capturedKings) {
+        long h = 0;
+        while (captured != 0) {
+            int sq = Integer.numberOfTrailingZeros(captured);
+            captured &= captured - 1;
+            h ^= Zobrist.PIECE[(capturedKings & (1 << sq)) != 0 ? opp + 2 : opp][sq];
+        }
+        return h;
+    }
+
+    /**
+     * Sums the piece-square values of captured pieces
+     * @param opp side the pieces belong to
+     * @param captured mask of captured pieces
+     * @param capturedKings mask of the captured pieces that are kings
+     * @return sum of Evaluation.PSQ over every captured piece
+     */
+    private static int captureValues(int opp, int captured, int capturedKings) {
+        int sum = 0;
+        while (captured != 0) {
+            int sq = Integer.numberOfTrailingZeros(captured);
+            captured &= captured - 1;
+            sum += Evaluation.PSQ[(capturedKings & (1 << sq)) != 0 ? opp + 2 : opp][sq];
+        }
+        return sum;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Bitboard)) {
+            return false;
+        }
+        Bitboard b = (Bitboard) o;
+        return pieces[X] == b.pieces[X] && pieces[O] == b.pieces[O] && kings == b.kings && side == b.side;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((pieces[X] * 31 + pieces[O]) * 31 + kings) * 31 + side;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 8; row >= 1; row--) {
+            sb.append(row).append('|');
+            for (int col = 1; col <= 8; col++) {
+                int sq = square(row, col);
+                sb.append(sq < 0 ? EMPTY : pieceAt(sq)).append('|');
+            }
+            sb.append('\n');
+        }
+        sb.append("  a b c d e f g h\n");
+        return sb.toString();
+    }
+}
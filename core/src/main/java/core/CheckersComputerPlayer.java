@@ -0,0 +1,161 @@
+/**
+ * Class containing a computer player for a Checkers game
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import core.CheckersLogic.Player;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class CheckersComputerPlayer {
+
+    //Search limits for the computer player
+    public static int maxDepth = 64;
+    public static long timeLimit = 1000;
+
+    //Size of the transposition table in MB, set with -Dcheckers.hash
+    public static final int hashSize = Integer.getInteger("checkers.hash", 64);
+
+    //Number of search threads, set with -Dcheckers.threads
+    public static final int threads = Integer.getInteger("checkers.threads", 1);
+
+    //Engine used to pick the computer's moves, created by engine() on first use
+    private static ParallelSearch engine;
+
+    //Tablebase given to every engine, null if none was opened
+    private static Tablebase tablebase;
+
+    //Opening book built by OpeningBookBuilder, set with -Dcheckers.book
+    public static OpeningBook book;
+
+    //Picks between weighted book moves so the computer does not always open the same way
+    private static final Random random = new Random();
+
+    //Set when the last move came from the opening book instead of a search
+    private static boolean bookMove;
+
+    static {
+        //Search statistics can be watched with jconsole while the computer plays
+        SearchStats.register();
+        //Endgame tablebase built by TablebaseGenerator, set with -Dcheckers.tablebase
+        String file = System.getProperty("checkers.tablebase");
+        if (file != null) {
+            try {
+                tablebase = Tablebase.open(Paths.get(file));
+            } catch (IOException e) {
+                System.out.println("Could not open tablebase " + file + ": " + e.getMessage());
+            }
+        }
+        file = System.getProperty("checkers.book");
+        if (file != null) {
+            try {
+                book = OpeningBook.open(Paths.get(file));
+            } catch (IOException e) {
+                System.out.println("Could not open opening book " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the engine shared by the console players, created on the first call
+     */
+    public static synchronized ParallelSearch engine() {
+        if (engine == null) {
+            engine = newEngine();
+        }
+        return engine;
+    }
+
+    /**
+     * Creates an engine of its own for a player that must not share one,
+     * with the configured threads, table size and tablebase
+     * @return new engine
+     */
+    public static ParallelSearch newEngine() {
+        ParallelSearch e = new ParallelSearch(threads, new TranspositionTable(hashSize));
+        e.setTablebase(tablebase);
+        return e;
+    }
+
+    /**
+     * Searches for the best move for player o
+     * @param board 2D checkers game board
+     * @return a String containing the move to be made on the game board
+     */
+    public static String check_moves(char[][] board) throws Exception {
+        Bitboard position = Bitboard.fromChars(board);
+        position.side = Bitboard.O;
+        position.rehash();
+        return Move.toString(choose_move(position));
+    }
+
+    /**
+     * Picks a move for the side to move, from the opening book when the
+     * position is in it and by searching otherwise
+     * @param position position to move from, it is not changed
+     * @return packed legal move
+     */
+    public static int choose_move(Bitboard position) throws Exception {
+        return choose_move(engine(), position);
+    }
+
+    /**
+     * Picks a move as choose_move does, searching with a given engine
+     * @param engine engine searching when the position is not in the book
+     * @param position position to move from, it is not changed
+     * @return packed legal move
+     */
+    public static int choose_move(ParallelSearch engine, Bitboard position) throws Exception {
+        int move = book == null ? Move.NONE : book.choose(position, random);
+        bookMove = move != Move.NONE;
+        if (!bookMove) {
+            move = engine.search(position, maxDepth, timeLimit);
+        }
+        if (move == Move.NONE) {
+            throw new Exception("No moves found but game has not ended.");
+        }
+        return move;
+    }
+
+    /**
+     * Plays a move returned by check_moves on the game board. Moves from the
+     * engine are always legal so the board is updated without further checks.
+     * @param board 2D checkers game board
+     * @param move String containing the move in console notation
+     * @param players array of players in the game, piece counts are updated
+     */
+    public static void make_move(char[][] board, String move, Player[] players) throws Exception {
+        Bitboard position = Bitboard.fromChars(board);
+        position.side = Bitboard.O;
+        int[] list = new int[MoveGenerator.MAX_MOVES];
+        int n = MoveGenerator.generate(position, list);
+        for (int i = 0; i < n; i++) {
+            if (Move.toString(list[i]).equals(move)) {
+                position.make(list[i]);
+                position.toChars(board);
+                for (Player p : players) {
+                    p.num_pieces = position.count(p.piece == 'x' ? Bitboard.X : Bitboard.O);
+                }
+                return;
+            }
+        }
+        throw new Exception("Computer attempted move invalid.");
+    }
+
+    /**
+     * Describes the last search for display to the players
+     * @return String with the depth reached, speed and expected line of play
+     */
+    public static String search_info() {
+        if (bookMove) {
+            return "opening book";
+        }
+        ParallelSearch engine = engine();
+        return "depth " + engine.getDepth() + ", " + engine.getNodesPerSecond() + " nodes/s on "
+                + engine.getThreads() + " thread(s), line " + engine.getPv();
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Class containing the logic for a checkers game
+ * Author: Jared Rosenthal
+ * Version: 1.1
+ */
+
+package core;
+
+import core.Rules.GameStatus;
+import core.Rules.MoveStatus;
+
+
+public class CheckersLogic {
+
+    /**
+     * class to create player objects
+     */
+    public static class Player {
+        public int num_pieces;
+        public String name;
+        public char piece;
+        public char user = 'p';
+
+        /**
+         * Constructor to create player objects
+         * @param player name of the player being created
+         * @param type 'x' or 'o' for player pieces
+         */
+        public Player(String player, char type) {
+            name = player;
+            piece = type;
+            num_pieces = 12;
+        }
+    }
+
+    /**
+     * Creates a new board for a checkers game
+     *
+     * @return a 2D array filled with 'x' and 'o' pieces for a new checkers game
+     */
+    public static char[][] create_board() {
+
+        char board[][] = new char[9][9];
+
+        char c = 'a';
+        for (int i = 8; i >= 0; i--) {
+            for (int j = 0; j < 9; j++) {
+                if (i == 0 && j >= 0) {
+                    if (j != 0) {
+                        board[i][j] = c++;
+                    } else {
+                        board[i][j] = ' ';
+                    }
+                } else if (j == 0 && i > 0) {
+                    board[i][j] = (char) (i + '0');
+                } else {
+                    board[i][j] = '_';
+                }
+            }
+        }
+        fill_board(board);
+        return board;
+    }
+
+    /**
+     * Fills board with pieces for new game of checkers
+     *
+     * @param board empty board to fill with pieces
+     */
+    public static void fill_board(char[][] board) {
+        for (int i = 8; i >= 0; i--) {
+            for (int j = 1; j < 9; j++) {
+                if ((i == 8 || i == 6) && j % 2 == 0) {
+                    board[i][j] = 'o';
+                }
+                if (i == 7 && j % 2 == 1) {
+                    board[i][j] = 'o';
+                }
+                if ((i == 3 || i == 1) && j % 2 == 1) {
+                    board[i][j] = 'x';
+                }
+                if (i == 2 && j % 2 == 0) {
+                    board[i][j] = 'x';
+                }
+            }
+        }
+    }
+
+    /**
+     * Formats the checkers board for players to see
+     *
+     * @param board 2D array of chars holding information about checkers game
+     * @return the board with row numbers and column letters, one row per line
+     */
+    public static String board_to_string(char[][] board) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 8; i >= 0; i--) {
+            for (int j = 0; j < 9; j++) {
+                sb.append(board[i][j]).append(i > 0 ? '|' : ' ');
+            }
+            sb.append('\n');
+        }
+        sb.append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Checks if move is valid and updates the game board
+     * @param board game board being played
+     * @param move string containing every square the piece visits, e.g. 3a-4b or 3a-5c-7e
+     * @param player player whose turn it is to make move
+     * @return true or false based on validity of move
+     */
+    public static boolean isValid(char[][] board, String move, Player player) {
+        return validate(board, move, player) == MoveStatus.OK;
+    }
+
+    /**
+     * Checks a move with the rules API and updates the game board if it is legal
+     * @param board game board being played
+     * @param move string containing every square the piece visits, e.g. 3a-4b or 3a-5c-7e
+     * @param player player whose turn it is to make move
+     * @return OK if the move was played, otherwise the reason it was refused
+     */
+    public static MoveStatus validate(char[][] board, String move, Player player) {
+        Events.MoveValidation event = new Events.MoveValidation();
+        event.begin();
+        Bitboard position = position(board, player);
+        String fen = event.isEnabled() ? position.toFen() : null;
+        MoveValidator validator = MoveValidator.local();
+        validator.setPosition(position);
+        int found = validator.find(move);
+        MoveStatus result = validator.getStatus();
+        if (found != Move.NONE) {
+            position.make(found);
+            position.toChars(board);
+            result = MoveStatus.OK;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.move = move;
+            event.status = result.name();
+            event.position = fen;
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the game has ended for the player about to move
+     * @param board 2D array game board
+     * @param player player whose turn it is
+     * @return IN_PROGRESS or the side that has won
+     */
+    public static GameStatus status(char[][] board, Player player) {
+        return Rules.status(position(board, player));
+    }
+
+    /**
+     * Checks if one player has won the game
+     * @param board 2D array game board
+     * @param player player whose turn it is
+     * @return true if game is over
+     */
+    public static boolean game_over(char[][] board, Player player) {
+        return status(board, player) != GameStatus.IN_PROGRESS;
+    }
+
+    /**
+     * Converts a board to a bitboard
+     * @param board 2D array game board
+     * @param player player whose turn it is
+     * @return bitboard with the player's side to move
+     */
+    private static Bitboard position(char[][] board, Player player) {
+        Bitboard position = Bitboard.fromChars(board);
+        position.side = player.piece == Bitboard.MEN[Bitboard.X] ? Bitboard.X : Bitboard.O;
+        position.rehash();
+        return position;
+    }
+}
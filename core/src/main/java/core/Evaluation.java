@@ -0,0 +1,247 @@
+/**
+ * Class containing the evaluation used by the computer player
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+/**
+ * Scores quiet positions. Material, the back rank guard, centre control
+ * and advancement depend only on which piece stands on which square, so
+ * they are folded into one piece-square table; Bitboard keeps the sum of
+ * the table over every piece in its psq field, updated by make and unmake
+ * the same way as the hash, so this part costs nothing at a leaf.
+ * Mobility and runaway men depend on the whole position and are worked
+ * out with a few shifts of the occupancy masks.
+ *
+ * The score is a weighted sum of features, each counted for X less O.
+ * features writes them out so Tuner can fit the weights to game results;
+ * tuned weights are copied back into the constants here.
+ */
+public class Evaluation {
+
+    //Material values
+    public static final int MAN = 100;
+    public static final int KING = 130;
+
+    //Bonus for a man still guarding its own back rank
+    public static final int BACK_RANK = 6;
+
+    //Bonus for a piece on one of the four centre squares
+    public static final int CENTER = 5;
+
+    //Bonus for a man by rows advanced, indexed by row counted from its own side.
+    //Row 2 is left at 0 so the rows and BACK_RANK do not add up to a second MAN.
+    private static final int[] ADVANCE = {0, 0, 0, 1, 2, 4, 6, 8, 0};
+    private static final int FIRST_ADVANCE = 3;
+    private static final int LAST_ADVANCE = 7;
+
+    //Bonus for each non-jumping move, counted for both sides
+    public static final int MOBILITY = 2;
+
+    //Bonus for a man with a free path to the king row, less per row still to go
+    public static final int RUNAWAY = 50;
+    public static final int RUNAWAY_STEP = 5;
+
+    /**
+     * Values indexed by piece kind then square, kinds as in Zobrist.PIECE.
+     * Values of O pieces are negated, so the sum over the board is from
+     * the point of view of X.
+     */
+    public static final int[][] PSQ = new int[4][Bitboard.SQUARES];
+
+    //Squares by row, index 1 is the bottom row
+    private static final int[] ROWS = new int[9];
+
+    //Half of the board each side's men must cross to be a runaway
+    private static final int[] FAR_HALF = {0xFFFF0000, 0x0000FFFF};
+
+    //The four centre squares, on rows 4 and 5 from column c to f
+    private static final int CENTER_SQUARES = 0x00066000;
+
+    //Index of each feature written by features
+    public static final int F_MAN = 0;
+    public static final int F_KING = 1;
+    public static final int F_BACK_RANK = 2;
+    public static final int F_CENTER = 3;
+    public static final int F_ADVANCE = 4;
+    public static final int F_MOBILITY = F_ADVANCE + LAST_ADVANCE - FIRST_ADVANCE + 1;
+    public static final int F_RUNAWAY = F_MOBILITY + 1;
+    public static final int F_RUNAWAY_STEP = F_RUNAWAY + 1;
+    public static final int FEATURES = F_RUNAWAY_STEP + 1;
+
+    //Names of the features, as the constants holding their weights are named
+    public static final String[] NAMES = {"MAN", "KING", "BACK_RANK", "CENTER",
+            "ADVANCE[3]", "ADVANCE[4]", "ADVANCE[5]", "ADVANCE[6]", "ADVANCE[7]",
+            "MOBILITY", "RUNAWAY", "RUNAWAY_STEP"};
+
+    static {
+        for (int row = 1; row <= 8; row++) {
+            ROWS[row] = 0xF << ((row - 1) << 2);
+        }
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            int row = Bitboard.row(sq);
+            boolean center = (CENTER_SQUARES & (1 << sq)) != 0;
+            int man = MAN + ADVANCE[row] + (row == 1 ? BACK_RANK : 0) + (center ? CENTER : 0);
+            int king = KING + (center ? CENTER : 0);
+            //O plays down the board, so its value on a square is X's on the square turned around
+            PSQ[Bitboard.X][sq] = man;
+            PSQ[Bitboard.X + 2][sq] = king;
+            PSQ[Bitboard.O][Bitboard.SQUARES - 1 - sq] = -man;
+            PSQ[Bitboard.O + 2][Bitboard.SQUARES - 1 - sq] = -king;
+        }
+    }
+
+    /**
+     * Sums the piece-square table over a board from scratch
+     * @param b board to sum
+     * @return value of the pieces from the point of view of X
+     */
+    public static int psq(Bitboard b) {
+        int sum = 0;
+        for (int side = Bitboard.X; side <= Bitboard.O; side++) {
+            int own = b.pieces[side];
+            while (own != 0) {
+                int sq = Integer.numberOfTrailingZeros(own);
+                own &= own - 1;
+                sum += PSQ[(b.kings & (1 << sq)) != 0 ? side + 2 : side][sq];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Scores a position
+     * @param b position to score, its psq field must be up to date
+     * @return score from the point of view of the side to move
+     */
+    public static int evaluate(Bitboard b) {
+        int empty = b.empty();
+        int score = b.psq
+                + MOBILITY * (mobility(b, Bitboard.X, empty) - mobility(b, Bitboard.O, empty))
+                + runaways(b, Bitboard.X, empty) - runaways(b, Bitboard.O, empty);
+        return b.side == Bitboard.X ? score : -score;
+    }
+
+    /**
+     * Counts the non-jumping moves of a side
+     * @param b position
+     * @param side X or O
+     * @param empty mask of empty squares
+     * @return number of steps to an empty square
+     */
+    public static int mobility(Bitboard b, int side, int empty) {
+        int own = b.pieces[side];
+        int kings = own & b.kings;
+        int up = side == Bitboard.X ? own : kings;
+        int down = side == Bitboard.O ? own : kings;
+        return Integer.bitCount(MoveGenerator.upLeft(up) & empty)
+                + Integer.bitCount(MoveGenerator.upRight(up) & empty)
+                + Integer.bitCount(MoveGenerator.downLeft(down) & empty)
+                + Integer.bitCount(MoveGenerator.downRight(down) & empty);
+    }
+
+    /**
+     * Scores the runaway men of a side
+     * @param b position
+     * @param side X or O
+     * @param empty mask of empty squares
+     * @return bonus for the side's runaway men
+     */
+    public static int runaways(Bitboard b, int side, int empty) {
+        int runaways = runawayMask(b, side, empty);
+        if (runaways == 0) {
+            return 0;
+        }
+        return RUNAWAY * Integer.bitCount(runaways) - RUNAWAY_STEP * rowsToGo(runaways, side);
+    }
+
+    /**
+     * Finds the men of a side that have every square between them and the
+     * king row empty, so nothing in front of them can stop them. Working
+     * back from the king row one row at a time, a square is clear when it
+     * is empty and the squares it steps to are clear.
+     * @param b position
+     * @param side X or O
+     * @param empty mask of empty squares
+     * @return mask of the side's runaway men
+     */
+    private static int runawayMask(Bitboard b, int side, int empty) {
+        int men = b.pieces[side] & ~b.kings & FAR_HALF[side];
+        if (men == 0) {
+            return 0;
+        }
+        int clear = empty & MoveGenerator.PROMOTION[side];
+        for (int i = 7; i >= 2; i--) {
+            int row = side == Bitboard.X ? i : 9 - i;
+            clear |= ROWS[row] & empty & ~blocked(side, ~clear);
+        }
+        return men & ~blocked(side, ~clear);
+    }
+
+    /**
+     * @param men mask of men
+     * @param side side the men belong to
+     * @return rows the men still have to go to the king row, added together
+     */
+    private static int rowsToGo(int men, int side) {
+        int sum = 0;
+        for (int row = 1; row <= 8; row++) {
+            sum += Integer.bitCount(men & ROWS[row]) * (side == Bitboard.X ? 8 - row : row - 1);
+        }
+        return sum;
+    }
+
+    /**
+     * @return the weight of each feature, in the order features writes them
+     */
+    public static int[] weights() {
+        int[] w = new int[FEATURES];
+        w[F_MAN] = MAN;
+        w[F_KING] = KING;
+        w[F_BACK_RANK] = BACK_RANK;
+        w[F_CENTER] = CENTER;
+        for (int row = FIRST_ADVANCE; row <= LAST_ADVANCE; row++) {
+            w[F_ADVANCE + row - FIRST_ADVANCE] = ADVANCE[row];
+        }
+        w[F_MOBILITY] = MOBILITY;
+        w[F_RUNAWAY] = RUNAWAY;
+        w[F_RUNAWAY_STEP] = RUNAWAY_STEP;
+        return w;
+    }
+
+    /**
+     * Counts the features of a position, each for X less O, so that
+     * evaluate from X's point of view is the sum of each feature times
+     * its weight
+     * @param b position
+     * @param f filled with FEATURES counts
+     */
+    public static void features(Bitboard b, int[] f) {
+        int empty = b.empty();
+        int x = b.pieces[Bitboard.X], o = b.pieces[Bitboard.O];
+        int xMen = x & ~b.kings, oMen = o & ~b.kings;
+        f[F_MAN] = Integer.bitCount(xMen) - Integer.bitCount(oMen);
+        f[F_KING] = Integer.bitCount(x & b.kings) - Integer.bitCount(o & b.kings);
+        f[F_BACK_RANK] = Integer.bitCount(xMen & ROWS[1]) - Integer.bitCount(oMen & ROWS[8]);
+        f[F_CENTER] = Integer.bitCount(x & CENTER_SQUARES) - Integer.bitCount(o & CENTER_SQUARES);
+        for (int row = FIRST_ADVANCE; row <= LAST_ADVANCE; row++) {
+            f[F_ADVANCE + row - FIRST_ADVANCE] = Integer.bitCount(xMen & ROWS[row]) - Integer.bitCount(oMen & ROWS[9 - row]);
+        }
+        f[F_MOBILITY] = mobility(b, Bitboard.X, empty) - mobility(b, Bitboard.O, empty);
+        int xRun = runawayMask(b, Bitboard.X, empty), oRun = runawayMask(b, Bitboard.O, empty);
+        f[F_RUNAWAY] = Integer.bitCount(xRun) - Integer.bitCount(oRun);
+        //The step is taken off per row still to go, so its feature counts down
+        f[F_RUNAWAY_STEP] = rowsToGo(oRun, Bitboard.O) - rowsToGo(xRun, Bitboard.X);
+    }
+
+    /**
+     * @param side X or O
+     * @param squares mask of squares
+     * @return mask of the squares a man of the side steps from onto one of the squares
+     */
+    private static int blocked(int side, int squares) {
+        return side == Bitboard.X ? MoveGenerator.downLeft(squares) | MoveGenerator.downRight(squares)
+                : MoveGenerator.upLeft(squares) | MoveGenerator.upRight(squares);
+    }
+}
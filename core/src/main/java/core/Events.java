@@ -0,0 +1,128 @@
+/**
+ * Class containing the flight recorder events of the engine
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder events for looking into single slow moves after the
+ * fact. Every event is disabled unless a recording turns it on, and the
+ * code that emits one fills in its fields only when shouldCommit says it
+ * will be written, so with no recording running an event costs a check of
+ * a flag the JIT folds away. To record them, start the JVM with for example
+ *
+ *   -XX:StartFlightRecording:filename=checkers.jfr,+checkers.SearchIteration#enabled=true,
+ *       +checkers.MoveValidation#enabled=true,+checkers.GameEnd#enabled=true
+ *
+ * or enable them in a copy of default.jfc passed as settings, then read the
+ * file with jfr print --events checkers.SearchIteration checkers.jfr or
+ * JDK Mission Control.
+ */
+public class Events {
+
+    /**
+     * One iteration of iterative deepening, its duration is the time the iteration took
+     */
+    @Name("checkers.SearchIteration")
+    @Label("Search Iteration")
+    @Category({"Checkers", "Search"})
+    @Description("One depth of iterative deepening searched by one search thread")
+    @Enabled(false)
+    @StackTrace(false)
+    public static class SearchIteration extends Event {
+        @Label("Depth")
+        public int depth;
+
+        @Label("Score")
+        @Description("Score for the side to move, 0 when the iteration did not complete")
+        public int score;
+
+        @Label("Nodes")
+        @Description("Nodes visited since the search started")
+        public long nodes;
+
+        @Label("Elapsed")
+        @Description("Time since the search started")
+        @Timespan(Timespan.NANOSECONDS)
+        public long elapsed;
+
+        @Label("Principal Variation")
+        @Description("Line found at this depth, empty when the iteration did not complete")
+        public String pv;
+
+        @Label("Completed")
+        @Description("False when the search was stopped part way through the iteration")
+        public boolean completed;
+
+        @Label("Thread Number")
+        @Description("0 for the main search, above 0 for helper threads")
+        public int thread;
+    }
+
+    /**
+     * A move submitted by a player and checked against the rules
+     */
+    @Name("checkers.MoveValidation")
+    @Label("Move Validation")
+    @Category({"Checkers", "Rules"})
+    @Description("A move from a player checked against the legal moves of the position")
+    @Enabled(false)
+    @StackTrace(false)
+    public static class MoveValidation extends Event {
+        @Label("Move")
+        public String move;
+
+        @Label("Status")
+        @Description("OK if the move was played, otherwise the reason it was refused")
+        public String status;
+
+        @Label("Position")
+        @Description("Position the move was submitted in, in PDN FEN")
+        public String position;
+    }
+
+    /**
+     * A game reaching its end
+     */
+    @Name("checkers.GameEnd")
+    @Label("Game End")
+    @Category({"Checkers", "Games"})
+    @Description("A game that has been won, or drawn by a tournament's ply limit")
+    @Enabled(false)
+    @StackTrace(false)
+    public static class GameEnd extends Event {
+        @Label("Result")
+        @Description("1-0 when x won, 0-1 when o won, 1/2-1/2 for a draw")
+        public String result;
+
+        @Label("Plies")
+        public int plies;
+    }
+
+    /**
+     * Writes the squares of a move being entered as text
+     * @param squares start square followed by each landing square
+     * @param length number of squares
+     * @return text such as 3a-5c-7e
+     */
+    static String path(int[] squares, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                sb.append('-');
+            }
+            sb.append(squares[i] < 0 ? "??" : Move.squareName(squares[i]));
+        }
+        return sb.toString();
+    }
+}
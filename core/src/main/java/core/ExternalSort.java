@@ -0,0 +1,333 @@
+/**
+ * Class containing a disk backed sort for large numbers of records
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorts (key, value) pairs of longs by key and then value while holding
+ * only a fixed number of them on the heap. Records are collected in a
+ * primitive buffer; a full buffer is sorted in parallel and written to a
+ * temporary run file, and merge streams every run back in order. Equal
+ * records come out next to each other so the sink can combine them.
+ */
+public class ExternalSort implements Closeable {
+
+    /**
+     * Receives the sorted records
+     */
+    public interface Sink {
+        /**
+         * @param key record key
+         * @param value record value
+         */
+        void accept(long key, long value) throws IOException;
+    }
+
+    //Sorting below this many records is not split across threads
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    //Bytes read or written at a time for each run file
+    private static final int IO_BUFFER = 1 << 16;
+
+    private final Path directory;
+    private final long[] keys;
+    private final long[] values;
+    private final long[] keyScratch;
+    private final long[] valueScratch;
+    private int size;
+    private final List<Path> runs = new ArrayList<>();
+
+    /**
+     * Creates a sorter
+     * @param directory directory for the temporary run files
+     * @param bufferRecords number of records held on the heap before a run is written
+     */
+    public ExternalSort(Path directory, int bufferRecords) {
+        this.directory = directory;
+        keys = new long[bufferRecords];
+        values = new long[bufferRecords];
+        keyScratch = new long[bufferRecords];
+        valueScratch = new long[bufferRecords];
+    }
+
+    /**
+     * Adds a record
+     * @param key record key
+     * @param value record value
+     */
+    public void add(long key, long value) throws IOException {
+        if (size == keys.length) {
+            spill();
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * @return number of run files written so far
+     */
+    public int getRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Sorts the buffer and writes it to a new run file
+     */
+    private void spill() throws IOException {
+        sortBuffer();
+        Path run = Files.createTempFile(directory, "run", ".bin");
+        runs.add(run);
+        try (FileChannel out = FileChannel.open(run, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+            for (int i = 0; i < size; i++) {
+                if (buffer.remaining() < 16) {
+                    write(out, buffer);
+                }
+                buffer.putLong(keys[i]).putLong(values[i]);
+            }
+            write(out, buffer);
+        }
+        size = 0;
+    }
+
+    /**
+     * Writes the contents of a buffer and empties it
+     * @param out channel to write to
+     * @param buffer buffer holding data
+     */
+    private static void write(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Streams every record added so far to a sink in sorted order
+     * @param sink receiver of the records
+     */
+    public void merge(Sink sink) throws IOException {
+        if (runs.isEmpty()) {
+            sortBuffer();
+            for (int i = 0; i < size; i++) {
+                sink.accept(keys[i], values[i]);
+            }
+            return;
+        }
+        if (size > 0) {
+            spill();
+        }
+        merge(runs, sink);
+    }
+
+    /**
+     * Merges the run files of several sorters, letting several threads
+     * produce records into their own sorter before one merged pass
+     * @param sorters sorters to merge, each is flushed to disk first
+     * @param sink receiver of the records
+     */
+    public static void mergeAll(List<ExternalSort> sorters, Sink sink) throws IOException {
+        List<Path> all = new ArrayList<>();
+        for (ExternalSort s : sorters) {
+            if (s.size > 0) {
+                s.spill();
+            }
+            all.addAll(s.runs);
+        }
+        merge(all, sink);
+    }
+
+    /**
+     * K-way merge of sorted run files
+     * @param files run files
+     * @param sink receiver of the records
+     */
+    private static void merge(List<Path> files, Sink sink) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<>((a, b) -> a.key != b.key
+                ? Long.compare(a.key, b.key) : Long.compare(a.value, b.value));
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            for (Path file : files) {
+                RunReader r = new RunReader(file);
+                readers.add(r);
+                if (r.next()) {
+                    queue.add(r);
+                }
+            }
+            while (!queue.isEmpty()) {
+                RunReader r = queue.poll();
+                sink.accept(r.key, r.value);
+                if (r.next()) {
+                    queue.add(r);
+                }
+            }
+        } finally {
+            for (RunReader r : readers) {
+                r.close();
+            }
+        }
+    }
+
+    /**
+     * Deletes the temporary run files
+     */
+    @Override
+    public void close() throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+        size = 0;
+    }
+
+    /**
+     * Sorts the records in the buffer, using every core for large buffers
+     */
+    private void sortBuffer() {
+        if (size < PARALLEL_THRESHOLD) {
+            sort(keys, values, keyScratch, valueScratch, 0, size);
+        } else {
+            ForkJoinPool.commonPool().invoke(new SortTask(0, size));
+        }
+    }
+
+    /**
+     * Parallel merge sort of part of the buffer
+     */
+    private class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        SortTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < PARALLEL_THRESHOLD) {
+                sort(keys, values, keyScratch, valueScratch, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(from, mid), new SortTask(mid, to));
+            mergeHalves(keys, values, keyScratch, valueScratch, from, mid, to);
+        }
+    }
+
+    /**
+     * Merge sort of records in [from, to)
+     */
+    private static void sort(long[] k, long[] v, long[] ks, long[] vs, int from, int to) {
+        if (to - from < 32) {
+            for (int i = from + 1; i < to; i++) {
+                long key = k[i], value = v[i];
+                int j = i - 1;
+                while (j >= from && (k[j] > key || (k[j] == key && v[j] > value))) {
+                    k[j + 1] = k[j];
+                    v[j + 1] = v[j];
+                    j--;
+                }
+                k[j + 1] = key;
+                v[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(k, v, ks, vs, from, mid);
+        sort(k, v, ks, vs, mid, to);
+        mergeHalves(k, v, ks, vs, from, mid, to);
+    }
+
+    /**
+     * Merges the sorted ranges [from, mid) and [mid, to)
+     */
+    private static void mergeHalves(long[] k, long[] v, long[] ks, long[] vs, int from, int mid, int to) {
+        if (k[mid - 1] < k[mid] || (k[mid - 1] == k[mid] && v[mid - 1] <= v[mid])) {
+            return;
+        }
+        System.arraycopy(k, from, ks, from, to - from);
+        System.arraycopy(v, from, vs, from, to - from);
+        int i = from, j = mid, o = from;
+        while (i < mid && j < to) {
+            if (ks[i] < ks[j] || (ks[i] == ks[j] && vs[i] <= vs[j])) {
+                k[o] = ks[i];
+                v[o++] = vs[i++];
+            } else {
+                k[o] = ks[j];
+                v[o++] = vs[j++];
+            }
+        }
+        while (i < mid) {
+            k[o] = ks[i];
+            v[o++] = vs[i++];
+        }
+        while (j < to) {
+            k[o] = ks[j];
+            v[o++] = vs[j++];
+        }
+    }
+
+    /**
+     * Buffered reader over one run file
+     */
+    private static class RunReader implements Closeable {
+        private final FileChannel in;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+        long key;
+        long value;
+
+        RunReader(Path file) throws IOException {
+            in = FileChannel.open(file, StandardOpenOption.READ);
+            buffer.flip();
+        }
+
+        /**
+         * Reads the next record
+         * @return false at the end of the run
+         */
+        boolean next() throws IOException {
+            if (buffer.remaining() < 16) {
+                buffer.compact();
+                while (buffer.position() < 16) {
+                    if (in.read(buffer) < 0) {
+                        if (buffer.position() == 0) {
+                            buffer.flip();
+                            return false;
+                        }
+                        throw new EOFException("Run file is truncated");
+                    }
+                }
+                buffer.flip();
+            }
+            key = buffer.getLong();
+            value = buffer.getLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
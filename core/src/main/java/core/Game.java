@@ -0,0 +1,264 @@
+/**
+ * Class containing a game of checkers played through the rules API
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import core.Rules.GameStatus;
+import core.Rules.MoveStatus;
+
+/**
+ * A game keeps the current position and its status between moves. It is
+ * the object a front end holds on to: the console, the GUI and the
+ * computer player all hand it moves and read the result back, and none of
+ * its methods read input or print.
+ *
+ * Piece counts and the pieces of each side that can move are kept up to
+ * date as moves are played: captures are taken off the count and mobility
+ * is a handful of shifts over the whole board, so asking whether the game
+ * has ended is a field read rather than a scan of every square.
+ *
+ * Moves are kept in a MoveHistory, so any number of them can be taken back
+ * with undo and played again with redo.
+ */
+public class Game {
+
+    private final Bitboard board;
+    private final MoveHistory history;
+    private final MoveValidator validator = new MoveValidator();
+    private final int[] pieces = new int[2];
+    private final int[] mobility = new int[2];
+    private GameStatus status;
+
+    //Set once the end of the game has been counted and recorded, so undoing and replaying it counts once
+    private boolean counted;
+
+    /**
+     * Creates a game from the starting position with x to move
+     */
+    public Game() {
+        this(Bitboard.initial());
+    }
+
+    /**
+     * Creates a game from any position
+     * @param start starting position, it is copied
+     */
+    public Game(Bitboard start) {
+        board = start.copy();
+        history = new MoveHistory(board, PdnGame.MAX_PLIES);
+        pieces[Bitboard.X] = board.count(Bitboard.X);
+        pieces[Bitboard.O] = board.count(Bitboard.O);
+        update();
+    }
+
+    /**
+     * Refreshes the mobility of both sides and the status after the board changes
+     */
+    private void update() {
+        for (int side = Bitboard.X; side <= Bitboard.O; side++) {
+            mobility[side] = MoveGenerator.movers(board, side) | MoveGenerator.jumpers(board, side);
+        }
+        int side = board.side;
+        status = pieces[side] == 0 || mobility[side] == 0 ? GameStatus.win(side ^ 1) : GameStatus.IN_PROGRESS;
+        if (status != GameStatus.IN_PROGRESS && !counted) {
+            counted = true;
+            SearchStats.GLOBAL.addGame(history.size());
+            Events.GameEnd event = new Events.GameEnd();
+            if (event.shouldCommit()) {
+                event.result = PdnGame.resultText(status == GameStatus.X_WINS ? PdnGame.X_WINS : PdnGame.O_WINS);
+                event.plies = history.size();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * @return the current position, callers must not change it
+     */
+    public Bitboard getBoard() {
+        return board;
+    }
+
+    /**
+     * @return the side to move, X or O
+     */
+    public int getSide() {
+        return board.side;
+    }
+
+    /**
+     * @return IN_PROGRESS or the side that has won
+     */
+    public GameStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @param side X or O
+     * @return number of pieces the side has on the board
+     */
+    public int getPieces(int side) {
+        return pieces[side];
+    }
+
+    /**
+     * @param side X or O
+     * @return number of pieces of the side that have a legal move or jump
+     */
+    public int getMobility(int side) {
+        return Integer.bitCount(mobility[side]);
+    }
+
+    /**
+     * @return number of moves played
+     */
+    public int getPlies() {
+        return history.size();
+    }
+
+    /**
+     * @return the last move played or Move.NONE
+     */
+    public int getLastMove() {
+        return history.last();
+    }
+
+    /**
+     * @return the moves played so far
+     */
+    public MoveHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Plays a written move, see MoveParser for the notations accepted
+     * @param move String such as 3a-4b, 3a-5c-7e or 9x18
+     * @return OK if the move was played, otherwise the reason it was refused
+     */
+    public MoveStatus play(CharSequence move) {
+        Events.MoveValidation event = new Events.MoveValidation();
+        event.begin();
+        String position = event.isEnabled() ? board.toFen() : null;
+        MoveStatus result = MoveStatus.GAME_OVER;
+        if (status == GameStatus.IN_PROGRESS) {
+            validator.setPosition(board);
+            result = playFound(validator.find(move));
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.move = move.toString();
+            event.status = result.name();
+            event.position = position;
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Plays a move given as the squares it visits
+     * @param squares start square followed by each landing square
+     * @param length number of squares
+     * @return OK if the move was played, otherwise the reason it was refused
+     */
+    public MoveStatus play(int[] squares, int length) {
+        Events.MoveValidation event = new Events.MoveValidation();
+        event.begin();
+        String position = event.isEnabled() ? board.toFen() : null;
+        MoveStatus result = MoveStatus.GAME_OVER;
+        if (status == GameStatus.IN_PROGRESS) {
+            validator.setPosition(board);
+            result = playFound(validator.find(squares, length));
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.move = Events.path(squares, length);
+            event.status = result.name();
+            event.position = position;
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Finds the squares that can be chosen next while a move is entered.
+     * The legal moves are generated once per position and kept, so asking
+     * again after each square is a lookup.
+     * @param squares squares chosen so far
+     * @param length number of squares chosen, 0 before the first
+     * @return mask of the pieces that can move when length is 0, otherwise
+     * of the squares that continue a legal move; 0 once the game is over
+     */
+    public int nextSquares(int[] squares, int length) {
+        if (status != GameStatus.IN_PROGRESS) {
+            return 0;
+        }
+        validator.setPosition(board);
+        return validator.nextSquares(squares, length);
+    }
+
+    /**
+     * Plays the move found by the validator
+     * @param move legal move or Move.NONE
+     * @return OK if the move was played, otherwise the validator's reason
+     */
+    private MoveStatus playFound(int move) {
+        if (move == Move.NONE) {
+            return validator.getStatus();
+        }
+        play(move);
+        return MoveStatus.OK;
+    }
+
+    /**
+     * Plays a move already known to be legal, such as one from the engine
+     * @param move packed legal move
+     */
+    public void play(int move) {
+        pieces[board.side ^ 1] -= Integer.bitCount(Move.captures(move));
+        history.makeMove(move);
+        update();
+    }
+
+    /**
+     * @return true if there is a move to take back
+     */
+    public boolean canUndo() {
+        return history.canUndo();
+    }
+
+    /**
+     * @return true if a move that was taken back can be played again
+     */
+    public boolean canRedo() {
+        return history.canRedo();
+    }
+
+    /**
+     * Takes back the last move
+     * @return the move taken back, or Move.NONE if no move has been played
+     */
+    public int undo() {
+        int move = history.unmakeMove();
+        if (move != Move.NONE) {
+            pieces[board.side ^ 1] += Integer.bitCount(Move.captures(move));
+            update();
+        }
+        return move;
+    }
+
+    /**
+     * Plays again the last move taken back
+     * @return the move played, or Move.NONE if there is none to redo
+     */
+    public int redo() {
+        int move = history.next();
+        if (move != Move.NONE) {
+            pieces[board.side ^ 1] -= Integer.bitCount(Move.captures(move));
+            history.redoMove();
+            update();
+        }
+        return move;
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Class containing the game database reader
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A game database holds finished games as packed moves, the same ints the
+ * engine plays with, so a game is replayed with Bitboard.make alone and
+ * never has to be parsed or checked again. Games are numbered from 0 in the
+ * order they were added. The file is mapped in segments, and the writer
+ * never lets a game cross from one segment into the next, so reading a game
+ * is a few absolute reads from mapped memory. Reads do not change any
+ * state, so one database can be shared by any number of threads.
+ *
+ * File layout: int magic, int version, long game count, long position of
+ * the offset table, long reserved, then the games, then the offset table
+ * holding the file position of each game as a long. Each game is a short
+ * ply count, a byte result and a byte of flags, then the x, o, kings and
+ * side of the starting position as four ints when the START flag is set,
+ * then one int per move.
+ */
+public class GameDatabase implements Closeable {
+
+    public static final int MAGIC = 0x434B4744;
+    public static final int VERSION = 1;
+
+    static final int HEADER = 32;
+
+    //Flag set when a game does not start from the initial position
+    static final int START = 1;
+
+    //Bytes per mapped segment of games, no game crosses a segment boundary
+    static final int SEGMENT_SHIFT = 30;
+    static final long SEGMENT_BYTES = 1L << SEGMENT_SHIFT;
+
+    //Offsets per mapped segment of the offset table
+    private static final int OFFSET_SHIFT = 27;
+    private static final long OFFSET_ENTRIES = 1L << OFFSET_SHIFT;
+
+    private final FileChannel channel;
+    private final int games;
+    private final ByteBuffer[] segments;
+    private final ByteBuffer[] offsets;
+
+    /**
+     * Maps a game database file
+     * @param channel open channel of the file
+     */
+    private GameDatabase(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Game database file is truncated");
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a checkers game database file");
+        }
+        long count = header.getLong();
+        long table = header.getLong();
+        if (count > Integer.MAX_VALUE || channel.size() < table + count * 8) {
+            throw new IOException("Game database file is truncated");
+        }
+        games = (int) count;
+        segments = new ByteBuffer[(int) ((table + SEGMENT_BYTES - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long first = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, first, Math.min(SEGMENT_BYTES, table - first));
+        }
+        offsets = new ByteBuffer[(int) ((count + OFFSET_ENTRIES - 1) >>> OFFSET_SHIFT)];
+        for (int i = 0; i < offsets.length; i++) {
+            long first = (long) i << OFFSET_SHIFT;
+            long entries = Math.min(OFFSET_ENTRIES, count - first);
+            offsets[i] = channel.map(FileChannel.MapMode.READ_ONLY, table + first * 8, entries * 8);
+        }
+    }
+
+    /**
+     * Opens a game database written by GameDatabaseWriter
+     * @param file path of the database file
+     * @return database ready to read
+     * @throws IOException if the file cannot be read or is not a game database
+     */
+    public static GameDatabase open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new GameDatabase(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of games in the database
+     */
+    public int size() {
+        return games;
+    }
+
+    /**
+     * @param id game number
+     * @return file position of the game
+     */
+    private long offset(int id) {
+        if (id < 0 || id >= games) {
+            throw new IndexOutOfBoundsException("No game " + id + " in a database of " + games);
+        }
+        return offsets[id >>> OFFSET_SHIFT].getLong((int) (id & (OFFSET_ENTRIES - 1)) * 8);
+    }
+
+    /**
+     * @param id game number
+     * @return number of plies in the game
+     */
+    public int length(int id) {
+        long at = offset(id);
+        return segments[(int) (at >>> SEGMENT_SHIFT)].getShort((int) (at & (SEGMENT_BYTES - 1)));
+    }
+
+    /**
+     * @param id game number
+     * @return PdnGame.X_WINS, DRAWN, O_WINS or UNKNOWN
+     */
+    public int result(int id) {
+        long at = offset(id);
+        return segments[(int) (at >>> SEGMENT_SHIFT)].get((int) (at & (SEGMENT_BYTES - 1)) + 2);
+    }
+
+    /**
+     * Reads a game. Only the starting position, moves and result are
+     * stored, so the tags of the game are left empty.
+     * @param id game number
+     * @param game game to fill, it is cleared first
+     */
+    public void read(int id, PdnGame game) {
+        long at = offset(id);
+        ByteBuffer segment = segments[(int) (at >>> SEGMENT_SHIFT)];
+        int i = (int) (at & (SEGMENT_BYTES - 1));
+        game.clear();
+        int plies = segment.getShort(i);
+        game.result = segment.get(i + 2);
+        int flags = segment.get(i + 3);
+        i += 4;
+        if ((flags & START) != 0) {
+            Bitboard start = game.start;
+            start.pieces[Bitboard.X] = segment.getInt(i);
+            start.pieces[Bitboard.O] = segment.getInt(i + 4);
+            start.kings = segment.getInt(i + 8);
+            start.side = segment.getInt(i + 12);
+            start.rehash();
+            i += 16;
+        }
+        for (int ply = 0; ply < plies; ply++) {
+            game.moves[ply] = segment.getInt(i);
+            i += 4;
+        }
+        game.count = plies;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Class containing the game database writer
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a game database, see GameDatabase for the layout. Games are
+ * streamed to the file as they are added and their offsets go to a
+ * temporary file that is appended on close, so a database of any number
+ * of games is written with a fixed amount of memory.
+ *
+ * Usage: java core.GameDatabaseWriter database file.pdn...
+ */
+public class GameDatabaseWriter implements Closeable {
+
+    private final Path file;
+    private final FileChannel out;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    private final Path offsetFile;
+    private final FileChannel offsets;
+    private final ByteBuffer offsetBuffer = ByteBuffer.allocateDirect(1 << 16);
+    private final Bitboard initial = Bitboard.initial();
+    private long position = GameDatabase.HEADER;
+    private int games;
+
+    /**
+     * Creates a database file, replacing any file already there
+     * @param file path of the database file
+     */
+    public GameDatabaseWriter(Path file) throws IOException {
+        this.file = file;
+        out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        out.position(GameDatabase.HEADER);
+        offsetFile = Files.createTempFile(file.toAbsolutePath().getParent(), "offsets", ".bin");
+        offsets = FileChannel.open(offsetFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * @return number of games added so far
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Adds a game
+     * @param game game holding legal moves, its tags are not stored
+     * @return number of the game in the database
+     */
+    public int add(PdnGame game) throws IOException {
+        return add(game.start, game.moves, game.count, game.result);
+    }
+
+    /**
+     * Adds a game
+     * @param start starting position
+     * @param moves legal moves of the game in order
+     * @param count number of moves, at most PdnGame.MAX_PLIES
+     * @param result PdnGame.X_WINS, DRAWN, O_WINS or UNKNOWN
+     * @return number of the game in the database
+     */
+    public int add(Bitboard start, int[] moves, int count, int result) throws IOException {
+        if (count > PdnGame.MAX_PLIES) {
+            throw new IllegalArgumentException("Game is longer than " + PdnGame.MAX_PLIES + " moves");
+        }
+        if (games == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Game database is full");
+        }
+        boolean initialStart = start.equals(initial);
+        int size = 4 + (initialStart ? 0 : 16) + count * 4;
+        //Start the game in the next segment rather than let it cross the boundary
+        long end = position + size - 1;
+        if ((position >>> GameDatabase.SEGMENT_SHIFT) != (end >>> GameDatabase.SEGMENT_SHIFT)) {
+            long pad = GameDatabase.SEGMENT_BYTES - (position & (GameDatabase.SEGMENT_BYTES - 1));
+            for (long i = 0; i < pad; i++) {
+                put(1).put((byte) 0);
+            }
+            position += pad;
+        }
+        if (offsetBuffer.remaining() < 8) {
+            drain(offsets, offsetBuffer);
+        }
+        offsetBuffer.putLong(position);
+        put(4).putShort((short) count).put((byte) result).put((byte) (initialStart ? 0 : GameDatabase.START));
+        if (!initialStart) {
+            put(16).putInt(start.pieces[Bitboard.X]).putInt(start.pieces[Bitboard.O])
+                    .putInt(start.kings).putInt(start.side);
+        }
+        for (int i = 0; i < count; i++) {
+            put(4).putInt(moves[i]);
+        }
+        position += size;
+        return games++;
+    }
+
+    /**
+     * Makes room in the buffer
+     * @param bytes number of bytes about to be written
+     * @return the buffer
+     */
+    private ByteBuffer put(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain(out, buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes the contents of a buffer and empties it
+     * @param channel channel to write to
+     * @param buffer buffer holding data
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Appends the offset table and writes the header
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain(out, buffer);
+            drain(offsets, offsetBuffer);
+            long length = offsets.size();
+            for (long done = 0; done < length; ) {
+                done += offsets.transferTo(done, length - done, out);
+            }
+            buffer.putInt(GameDatabase.MAGIC).putInt(GameDatabase.VERSION)
+                    .putLong(games).putLong(position).putLong(0);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer, buffer.position());
+            }
+            buffer.clear();
+        } finally {
+            out.close();
+            offsets.close();
+            Files.deleteIfExists(offsetFile);
+        }
+    }
+
+    /**
+     * Imports the legal games of PDN files into a new database
+     * @param args database file followed by PDN files
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: java core.GameDatabaseWriter database file.pdn...");
+            return;
+        }
+        long start = System.nanoTime();
+        PdnGame game = new PdnGame();
+        long skipped = 0;
+        try (GameDatabaseWriter writer = new GameDatabaseWriter(Paths.get(args[0]))) {
+            for (int i = 1; i < args.length; i++) {
+                try (PdnReader reader = PdnReader.open(Paths.get(args[i]))) {
+                    while (reader.next(game)) {
+                        if (game.isValid()) {
+                            writer.add(game);
+                        } else {
+                            skipped++;
+                        }
+                    }
+                }
+            }
+            System.out.println("Wrote " + writer.getGames() + " games (" + skipped + " skipped) to "
+                    + writer.file + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Class containing helpers for moves packed into a single int
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+/**
+ * A move is packed into an int as follows:
+ * bits 0-4 hold the starting square, bits 5-9 hold the final square and
+ * bits 10-27 hold the captured pieces. Only the 18 squares off the edge of
+ * the board can ever be jumped, so captures are stored as a mask over those
+ * squares. The value 0 is never a legal move and is used as "no move".
+ */
+public class Move {
+
+    public static final int NONE = 0;
+
+    //Squares that can be jumped, ie. not on the edge of the board
+    private static final int[] INTERIOR_INDEX = new int[Bitboard.SQUARES];
+    private static final int[] INTERIOR_SQUARE = new int[18];
+
+    //Lookup tables expanding 6 bit chunks of the capture field to board masks
+    private static final int[][] EXPAND = new int[3][64];
+
+    static {
+        int n = 0;
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            int row = Bitboard.row(sq), col = Bitboard.col(sq);
+            if (row > 1 && row < 8 && col > 1 && col < 8) {
+                INTERIOR_SQUARE[n] = sq;
+                INTERIOR_INDEX[sq] = n++;
+            } else {
+                INTERIOR_INDEX[sq] = -1;
+            }
+        }
+        for (int chunk = 0; chunk < 3; chunk++) {
+            for (int bits = 0; bits < 64; bits++) {
+                int mask = 0;
+                for (int i = 0; i < 6; i++) {
+                    if ((bits & (1 << i)) != 0) {
+                        mask |= 1 << INTERIOR_SQUARE[chunk * 6 + i];
+                    }
+                }
+                EXPAND[chunk][bits] = mask;
+            }
+        }
+    }
+
+    /**
+     * Packs a move into an int
+     * @param from starting square
+     * @param to final square
+     * @param captured board mask of the pieces jumped by the move
+     * @return packed move
+     */
+    public static int encode(int from, int to, int captured) {
+        int field = 0;
+        while (captured != 0) {
+            int sq = Integer.numberOfTrailingZeros(captured);
+            captured &= captured - 1;
+            field |= 1 << INTERIOR_INDEX[sq];
+        }
+        return from | (to << 5) | (field << 10);
+    }
+
+    /**
+     * Packs a move that jumps a single piece
+     * @param from starting square
+     * @param to final square
+     * @param captured square of the jumped piece
+     * @return packed move
+     */
+    public static int encodeJump(int from, int to, int captured) {
+        return from | (to << 5) | (1 << (INTERIOR_INDEX[captured] + 10));
+    }
+
+    /**
+     * Adds one more jumped piece to a packed move
+     * @param move packed move
+     * @param to new final square
+     * @param captured square of the jumped piece
+     * @return packed move
+     */
+    public static int extendJump(int move, int to, int captured) {
+        return (move & ~(31 << 5)) | (to << 5) | (1 << (INTERIOR_INDEX[captured] + 10));
+    }
+
+    /**
+     * @param move packed move
+     * @return starting square
+     */
+    public static int from(int move) {
+        return move & 31;
+    }
+
+    /**
+     * @param move packed move
+     * @return final square
+     */
+    public static int to(int move) {
+        return (move >>> 5) & 31;
+    }
+
+    /**
+     * @param move packed move
+     * @return true if the move jumps at least one piece
+     */
+    public static boolean isJump(int move) {
+        return (move >>> 10) != 0;
+    }
+
+    /**
+     * @param move packed move
+     * @return board mask of the pieces jumped by the move
+     */
+    public static int captures(int move) {
+        int field = move >>> 10;
+        return EXPAND[0][field & 63] | EXPAND[1][(field >>> 6) & 63] | EXPAND[2][(field >>> 12) & 63];
+    }
+
+    /**
+     * Reconstructs the squares visited by a move, including the start and end
+     * @param move packed move
+     * @param path array to hold the squares, at least 2 + number of captures long
+     * @return number of squares written to path
+     */
+    public static int path(int move, int[] path) {
+        path[0] = from(move);
+        if (!isJump(move)) {
+            path[1] = to(move);
+            return 2;
+        }
+        int captured = captures(move);
+        return walk(path, 1, from(move), to(move), captured, captured);
+    }
+
+    /**
+     * Depth first search for a chain of jumps taking every captured piece
+     * @param path squares visited so far
+     * @param n number of squares in path
+     * @param sq current square
+     * @param to final square of the move
+     * @param left captured pieces not yet jumped
+     * @param captured all captured pieces
+     * @return length of the completed path or 0 if this branch fails
+     */
+    private static int walk(int[] path, int n, int sq, int to, int left, int captured) {
+        if (left == 0) {
+            return sq == to ? n : 0;
+        }
+        for (int dir = 0; dir < 4; dir++) {
+            int land = MoveGenerator.JUMP[dir][sq];
+            if (land < 0) {
+                continue;
+            }
+            int mid = MoveGenerator.NEIGHBOUR[dir][sq];
+            if ((left & (1 << mid)) == 0 || (captured & (1 << land)) != 0) {
+                continue;
+            }
+            path[n] = land;
+            int len = walk(path, n + 1, land, to, left & ~(1 << mid), captured);
+            if (len > 0) {
+                return len;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Converts a square to the standard 1-32 numbering used by PDN, where x
+     * plays Black's pieces on squares 1-12
+     * @param sq playable square from 0 to 31
+     * @return standard square number from 1 to 32
+     */
+    public static int toStandard(int sq) {
+        return (sq & ~3) + (3 - (sq & 3)) + 1;
+    }
+
+    /**
+     * Converts a square from the standard 1-32 numbering used by PDN
+     * @param number standard square number from 1 to 32
+     * @return playable square from 0 to 31
+     */
+    public static int fromStandard(int number) {
+        int sq = number - 1;
+        return (sq & ~3) + (3 - (sq & 3));
+    }
+
+    /**
+     * Creates the name of a square in the same format as the console, e.g. 3a
+     * @param sq playable square
+     * @return row digit followed by column letter
+     */
+    public static String squareName(int sq) {
+        return new String(new char[] {(char) ('0' + Bitboard.row(sq)), (char) ('a' + Bitboard.col(sq) - 1)});
+    }
+
+    /**
+     * Creates the console notation for a move, e.g. 3a-4b or 3a-5c-7e
+     * @param move packed move
+     * @return String in the format accepted by CheckersLogic.isValid
+     */
+    public static String toString(int move) {
+        if (move == NONE) {
+            return "N/A";
+        }
+        int[] path = new int[14];
+        int n = path(move, path);
+        StringBuilder sb = new StringBuilder(squareName(path[0]));
+        for (int i = 1; i < n; i++) {
+            sb.append('-').append(squareName(path[i]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ * Class containing the legal move generator for a bitboard
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+public class MoveGenerator {
+
+    //Size of a move buffer large enough for any position
+    public static final int MAX_MOVES = 128;
+
+    //Directions, up is towards row 8 where x pieces are crowned
+    public static final int UP_LEFT = 0;
+    public static final int UP_RIGHT = 1;
+    public static final int DOWN_LEFT = 2;
+    public static final int DOWN_RIGHT = 3;
+
+    //Squares on which each side's men are crowned
+    public static final int[] PROMOTION = {0xF0000000, 0x0000000F};
+
+    //Squares on rows 1, 3, 5 and 7, whose playable columns are a, c, e and g
+    private static final int ODD_ROWS = 0x0F0F0F0F;
+    //Squares on rows 2, 4, 6 and 8, whose playable columns are b, d, f and h
+    private static final int EVEN_ROWS = 0xF0F0F0F0;
+    //Playable squares in column a and column h
+    private static final int LEFT_EDGE = 0x11111111;
+    private static final int RIGHT_EDGE = 0x88888888;
+
+    //First and last direction a man of each side can move in
+    private static final int[] FIRST_DIR = {UP_LEFT, DOWN_LEFT};
+    private static final int[] LAST_DIR = {UP_RIGHT, DOWN_RIGHT};
+
+    /**
+     * Diagonal neighbour of each square indexed by direction then square,
+     * -1 off the board. It is also the square passed over by a jump.
+     */
+    public static final int[][] NEIGHBOUR = new int[4][Bitboard.SQUARES];
+
+    /**
+     * Landing square of a jump indexed by direction then square, two
+     * diagonal steps away, or -1 when the jump would leave the board
+     */
+    public static final int[][] JUMP = new int[4][Bitboard.SQUARES];
+
+    static {
+        //The row and column arithmetic is done once here, so no move has to handle the edges
+        for (int dir = UP_LEFT; dir <= DOWN_RIGHT; dir++) {
+            int dr = dir < DOWN_LEFT ? 1 : -1;
+            int dc = (dir & 1) == 0 ? -1 : 1;
+            for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+                int row = Bitboard.row(sq), col = Bitboard.col(sq);
+                NEIGHBOUR[dir][sq] = Bitboard.square(row + dr, col + dc);
+                JUMP[dir][sq] = Bitboard.square(row + 2 * dr, col + 2 * dc);
+            }
+        }
+    }
+
+    /**
+     * Finds the diagonal neighbour of a square
+     * @param sq playable square
+     * @param dir one of the direction constants
+     * @return neighbouring square or -1 if it is off the board
+     */
+    public static int neighbour(int sq, int dir) {
+        return NEIGHBOUR[dir][sq];
+    }
+
+    /**
+     * Writes every legal move for the side to move into a buffer
+     * @param b board to generate moves for
+     * @param moves buffer for packed moves, MAX_MOVES long
+     * @return number of moves written
+     */
+    public static int generate(Bitboard b, int[] moves) {
+        return generate(b, b.side, moves);
+    }
+
+    /**
+     * Writes every legal move for a side into a buffer. Jumps are mandatory,
+     * so if any jump exists only complete jump chains are returned.
+     * @param b board to generate moves for
+     * @param side X or O
+     * @param moves buffer for packed moves, MAX_MOVES long
+     * @return number of moves written
+     */
+    public static int generate(Bitboard b, int side, int[] moves) {
+        int n = generateJumps(b, side, moves);
+        if (n > 0) {
+            return n;
+        }
+        return generateQuiet(b, side, moves);
+    }
+
+    /**
+     * Writes every complete jump chain for a side into a buffer
+     * @param b board to generate moves for
+     * @param side X or O
+     * @param moves buffer for packed moves
+     * @return number of moves written
+     */
+    public static int generateJumps(Bitboard b, int side, int[] moves) {
+        int n = 0;
+        int own = b.pieces[side];
+        while (own != 0) {
+            int from = Integer.numberOfTrailingZeros(own);
+            own &= own - 1;
+            boolean king = (b.kings & (1 << from)) != 0;
+            int first = n;
+            n = jump(b, side, king, from, from, 0, moves, n);
+            if (king && n - first > 1) {
+                n = removeDuplicates(moves, first, n);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Writes every non-jumping move for a side into a buffer
+     * @param b board to generate moves for
+     * @param side X or O
+     * @param moves buffer for packed moves
+     * @return number of moves written
+     */
+    public static int generateQuiet(Bitboard b, int side, int[] moves) {
+        int n = 0;
+        int empty = b.empty();
+        int own = b.pieces[side];
+        while (own != 0) {
+            int from = Integer.numberOfTrailingZeros(own);
+            own &= own - 1;
+            boolean king = (b.kings & (1 << from)) != 0;
+            int first = king ? UP_LEFT : FIRST_DIR[side];
+            int last = king ? DOWN_RIGHT : LAST_DIR[side];
+            for (int dir = first; dir <= last; dir++) {
+                int to = NEIGHBOUR[dir][from];
+                if (to >= 0 && (empty & (1 << to)) != 0) {
+                    moves[n++] = from | (to << 5);
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @param b board to check
+     * @param side X or O
+     * @return true if the side has a jump available
+     */
+    public static boolean hasJump(Bitboard b, int side) {
+        return jumpers(b, side) != 0;
+    }
+
+    /**
+     * @param b board to check
+     * @param side X or O
+     * @return true if the side has any legal move
+     */
+    public static boolean hasMove(Bitboard b, int side) {
+        return (movers(b, side) | jumpers(b, side)) != 0;
+    }
+
+    /**
+     * Finds every piece of a side that has a non-jumping move, using a few
+     * shifts of the whole board instead of a loop over the pieces
+     * @param b board to check
+     * @param side X or O
+     * @return mask of the pieces that can step to an empty square
+     */
+    public static int movers(Bitboard b, int side) {
+        int empty = b.empty();
+        int own = b.pieces[side];
+        //A piece can step up to an empty square if that square is down from it, and the reverse
+        int up = downLeft(empty) | downRight(empty);
+        int down = upLeft(empty) | upRight(empty);
+        int kings = own & b.kings;
+        return (side == Bitboard.X ? own & up : own & down) | (kings & (up | down));
+    }
+
+    /**
+     * Finds every piece of a side that can start a jump
+     * @param b board to check
+     * @param side X or O
+     * @return mask of the pieces with at least one jump
+     */
+    public static int jumpers(Bitboard b, int side) {
+        int empty = b.empty();
+        int own = b.pieces[side];
+        int opp = b.pieces[side ^ 1];
+        //Work back from each empty landing square over an opposing piece to the jumping piece
+        int up = downLeft(downLeft(empty) & opp) | downRight(downRight(empty) & opp);
+        int down = upLeft(upLeft(empty) & opp) | upRight(upRight(empty) & opp);
+        int kings = own & b.kings;
+        return (side == Bitboard.X ? own & up : own & down) | (kings & (up | down));
+    }
+
+    /**
+     * Shifts every square in a mask one step up and to the left
+     * @param squares mask of squares
+     * @return mask of their up-left neighbours, squares off the board are dropped
+     */
+    public static int upLeft(int squares) {
+        return ((squares & ODD_ROWS & ~LEFT_EDGE) << 3) | ((squares & EVEN_ROWS) << 4);
+    }
+
+    /**
+     * Shifts every square in a mask one step up and to the right
+     * @param squares mask of squares
+     * @return mask of their up-right neighbours, squares off the board are dropped
+     */
+    public static int upRight(int squares) {
+        return ((squares & ODD_ROWS) << 4) | ((squares & EVEN_ROWS & ~RIGHT_EDGE) << 5);
+    }
+
+    /**
+     * Shifts every square in a mask one step down and to the left
+     * @param squares mask of squares
+     * @return mask of their down-left neighbours, squares off the board are dropped
+     */
+    public static int downLeft(int squares) {
+        return ((squares & ODD_ROWS & ~LEFT_EDGE) >>> 5) | ((squares & EVEN_ROWS) >>> 4);
+    }
+
+    /**
+     * Shifts every square in a mask one step down and to the right
+     * @param squares mask of squares
+     * @return mask of their down-right neighbours, squares off the board are dropped
+     */
+    public static int downRight(int squares) {
+        return ((squares & ODD_ROWS) >>> 4) | ((squares & EVEN_ROWS & ~RIGHT_EDGE) >>> 3);
+    }
+
+    /**
+     * Depth first search extending a jump chain until no further jump exists
+     * @param b board being searched
+     * @param side side making the jumps
+     * @param king true if the jumping piece is a king
+     * @param from starting square of the chain
+     * @param sq current square of the jumping piece
+     * @param move packed move so far, 0 before the first jump
+     * @param moves buffer for packed moves
+     * @param n number of moves already in the buffer
+     * @return number of moves in the buffer after this chain
+     */
+    private static int jump(Bitboard b, int side, boolean king, int from, int sq, int move, int[] moves, int n) {
+        //Captured pieces stay on the board until the move ends, the jumping piece does not
+        int occupied = (b.pieces[Bitboard.X] | b.pieces[Bitboard.O]) & ~(1 << from);
+        int opp = b.pieces[side ^ 1];
+        int captured = move == 0 ? 0 : Move.captures(move);
+        int first = king ? UP_LEFT : FIRST_DIR[side];
+        int last = king ? DOWN_RIGHT : LAST_DIR[side];
+        boolean extended = false;
+        for (int dir = first; dir <= last; dir++) {
+            //A jump that stays on the board always has its middle square on the board
+            int land = JUMP[dir][sq];
+            if (land < 0) {
+                continue;
+            }
+            int mid = NEIGHBOUR[dir][sq];
+            if ((opp & (1 << mid)) == 0 || (captured & (1 << mid)) != 0 || (occupied & (1 << land)) != 0) {
+                continue;
+            }
+            extended = true;
+            int next = move == 0 ? Move.encodeJump(from, land, mid) : Move.extendJump(move, land, mid);
+            //A man that is crowned ends its move
+            if (!king && (PROMOTION[side] & (1 << land)) != 0) {
+                moves[n++] = next;
+            } else {
+                n = jump(b, side, king, from, land, next, moves, n);
+            }
+        }
+        if (!extended && move != 0) {
+            moves[n++] = move;
+        }
+        return n;
+    }
+
+    /**
+     * Removes repeated moves from part of a buffer. A king can reach the same
+     * square taking the same pieces along different paths.
+     * @param moves buffer for packed moves
+     * @param first index of the first move to check
+     * @param n number of moves in the buffer
+     * @return number of moves left in the buffer
+     */
+    private static int removeDuplicates(int[] moves, int first, int n) {
+        int end = first + 1;
+        for (int i = first + 1; i < n; i++) {
+            int m = moves[i];
+            boolean seen = false;
+            for (int j = first; j < end; j++) {
+                if (moves[j] == m) {
+                    seen = true;
+                    break;
+                }
+            }
+            if (!seen) {
+                moves[end++] = m;
+            }
+        }
+        return end;
+    }
+}
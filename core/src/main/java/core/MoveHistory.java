@@ -0,0 +1,151 @@
+/**
+ * Class containing the undo and redo history of a board
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Plays moves on a board and remembers enough to take each one back. For
+ * every move the stack keeps the packed move, which holds the captured
+ * squares, the value make returns, which holds the captured kings and
+ * whether the piece was crowned, and the hash before the move. Moves are
+ * taken back with Bitboard.unmake, so trying a move and retracting it
+ * never copies a board. Moves that are taken back stay on the stack to be
+ * redone until a different move is played.
+ *
+ * The stack is sized when the history is created and only grows for games
+ * longer than that, so playing and taking back moves creates no objects.
+ */
+public class MoveHistory {
+
+    private final Bitboard board;
+    private int[] moves;
+    private int[] undos;
+    private long[] hashes;
+
+    //Moves on the board, and moves on the stack including those that can be redone
+    private int size;
+    private int top;
+
+    /**
+     * Creates a history for a board
+     * @param board board the moves are played on
+     * @param capacity number of moves held before the stack grows
+     */
+    public MoveHistory(Bitboard board, int capacity) {
+        this.board = board;
+        moves = new int[capacity];
+        undos = new int[capacity];
+        hashes = new long[capacity];
+    }
+
+    /**
+     * Plays a move and pushes it on the stack. Playing the move that would
+     * be redone keeps the rest of the redo history, any other move drops it.
+     * @param move packed legal move
+     */
+    public void makeMove(int move) {
+        if (size == moves.length) {
+            int capacity = Math.max(16, moves.length * 2);
+            moves = Arrays.copyOf(moves, capacity);
+            undos = Arrays.copyOf(undos, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+        }
+        if (size == top || moves[size] != move) {
+            top = size + 1;
+        }
+        hashes[size] = board.hash;
+        undos[size] = board.make(move);
+        moves[size] = move;
+        size++;
+    }
+
+    /**
+     * Takes back the last move played
+     * @return the move taken back, or Move.NONE if there is none
+     */
+    public int unmakeMove() {
+        if (size == 0) {
+            return Move.NONE;
+        }
+        size--;
+        board.unmake(moves[size], undos[size]);
+        board.hash = hashes[size];
+        return moves[size];
+    }
+
+    /**
+     * Plays again the last move taken back
+     * @return the move played, or Move.NONE if there is none
+     */
+    public int redoMove() {
+        if (size == top) {
+            return Move.NONE;
+        }
+        int move = moves[size];
+        makeMove(move);
+        return move;
+    }
+
+    /**
+     * @return true if there is a move to take back
+     */
+    public boolean canUndo() {
+        return size > 0;
+    }
+
+    /**
+     * @return true if there is a move to redo
+     */
+    public boolean canRedo() {
+        return size < top;
+    }
+
+    /**
+     * @return number of moves on the board
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param ply index of a move on the board
+     * @return the move
+     */
+    public int getMove(int ply) {
+        return moves[ply];
+    }
+
+    /**
+     * @param ply index of a move on the board
+     * @return hash of the position the move was played in
+     */
+    public long getHash(int ply) {
+        return hashes[ply];
+    }
+
+    /**
+     * @return the last move on the board, or Move.NONE
+     */
+    public int last() {
+        return size == 0 ? Move.NONE : moves[size - 1];
+    }
+
+    /**
+     * @return the move redoMove would play, or Move.NONE
+     */
+    public int next() {
+        return size == top ? Move.NONE : moves[size];
+    }
+
+    /**
+     * Forgets every move without changing the board
+     */
+    public void clear() {
+        size = 0;
+        top = 0;
+    }
+}
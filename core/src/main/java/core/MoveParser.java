@@ -0,0 +1,126 @@
+/**
+ * Class containing the parser for move notation
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes written moves into the squares they visit without creating any
+ * objects. Two notations are read, and may be mixed within a move:
+ * console squares, a row digit and a column letter such as 3a, and the
+ * standard 1-32 numbers used by PDN. Squares are separated by '-' or 'x',
+ * so 3a-4b, 3a-5c-7e, 9-13 and 9x18x27 are all read.
+ *
+ * Squares that are written correctly but are not playable, such as 9a or
+ * 33, are stored as -1 so the caller can tell them apart from text that is
+ * not a move at all.
+ */
+public class MoveParser {
+
+    //Returned when the text is not a move
+    public static final int MALFORMED = -1;
+
+    /**
+     * Reads a whole CharSequence as one move
+     * @param text move such as 3a-4b or 9x18
+     * @param path array of at least Rules.MAX_PATH entries to hold the squares
+     * @return number of squares read, or MALFORMED
+     */
+    public static int parse(CharSequence text, int[] path) {
+        return parse(text, 0, text.length(), path);
+    }
+
+    /**
+     * Reads part of a CharSequence as one move
+     * @param text text holding the move
+     * @param start index of the first character of the move
+     * @param end index after the last character of the move
+     * @param path array of at least Rules.MAX_PATH entries to hold the squares
+     * @return number of squares read, or MALFORMED
+     */
+    public static int parse(CharSequence text, int start, int end, int[] path) {
+        return decode(text, null, start, end, path);
+    }
+
+    /**
+     * Reads the next move from a buffer of ASCII text. Leading whitespace is
+     * skipped, the move ends at the next whitespace or the limit, and the
+     * buffer position is left after the move.
+     * @param buffer buffer holding moves separated by whitespace
+     * @param path array of at least Rules.MAX_PATH entries to hold the squares
+     * @return number of squares read, 0 if the buffer has no more moves, or MALFORMED
+     */
+    public static int parse(ByteBuffer buffer, int[] path) {
+        int i = buffer.position();
+        int limit = buffer.limit();
+        while (i < limit && isSpace(buffer.get(i))) {
+            i++;
+        }
+        int start = i;
+        while (i < limit && !isSpace(buffer.get(i))) {
+            i++;
+        }
+        buffer.position(i);
+        if (start == i) {
+            return 0;
+        }
+        return decode(null, buffer, start, i, path);
+    }
+
+    /**
+     * @param c character to test
+     * @return true for a space, tab or line break
+     */
+    static boolean isSpace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    /**
+     * Decodes a move from whichever source is given
+     * @param text source of characters, or null to read the buffer
+     * @param buffer source of ASCII bytes when text is null
+     * @param start index of the first character
+     * @param end index after the last character
+     * @param path array to hold the squares
+     * @return number of squares read, or MALFORMED
+     */
+    private static int decode(CharSequence text, ByteBuffer buffer, int start, int end, int[] path) {
+        int n = 0;
+        int i = start;
+        while (true) {
+            if (i == end || n == Rules.MAX_PATH) {
+                return MALFORMED;
+            }
+            int c = text != null ? text.charAt(i) : buffer.get(i) & 0xFF;
+            if (c < '0' || c > '9') {
+                return MALFORMED;
+            }
+            int number = c - '0';
+            i++;
+            int next = i < end ? (text != null ? text.charAt(i) : buffer.get(i) & 0xFF) : -1;
+            if (next >= 'a' && next <= 'h') {
+                //Console square, a row digit then a column letter
+                path[n++] = number >= 1 && number <= 8 ? Bitboard.square(number, next - 'a' + 1) : -1;
+                i++;
+            } else {
+                //Standard square number
+                if (next >= '0' && next <= '9') {
+                    number = number * 10 + next - '0';
+                    i++;
+                }
+                path[n++] = number >= 1 && number <= Bitboard.SQUARES ? Move.fromStandard(number) : -1;
+            }
+            if (i == end) {
+                return n;
+            }
+            int separator = text != null ? text.charAt(i) : buffer.get(i) & 0xFF;
+            if (separator != '-' && separator != 'x') {
+                return MALFORMED;
+            }
+            i++;
+        }
+    }
+}
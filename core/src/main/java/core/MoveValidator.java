@@ -0,0 +1,294 @@
+/**
+ * Class containing the validator for moves submitted by players
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import core.Rules.MoveStatus;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Matches written moves against the legal moves of a position. The legal
+ * moves and the squares each one visits are worked out once when the
+ * position is set and reused for every move checked against it, and all
+ * buffers are allocated when the validator is created, so checking a move
+ * creates no objects. A validator is not thread safe; each thread keeps
+ * its own, see local.
+ */
+public class MoveValidator {
+
+    private static final ThreadLocal<MoveValidator> LOCAL = ThreadLocal.withInitial(MoveValidator::new);
+
+    private final Bitboard position = new Bitboard();
+    private boolean ready;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private final int[] paths = new int[MoveGenerator.MAX_MOVES * Rules.MAX_PATH];
+    private final int[] lengths = new int[MoveGenerator.MAX_MOVES];
+    private int count;
+    private final int[] path = new int[Rules.MAX_PATH];
+    private final int[] scratch = new int[Rules.MAX_PATH];
+    private MoveStatus status = MoveStatus.OK;
+
+    /**
+     * @return the validator belonging to the calling thread
+     */
+    public static MoveValidator local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Sets the position moves are checked against. Setting the same
+     * position again keeps the legal moves already worked out.
+     * @param b position, it is copied
+     */
+    public void setPosition(Bitboard b) {
+        if (ready && position.equals(b)) {
+            return;
+        }
+        position.set(b);
+        count = MoveGenerator.generate(position, moves);
+        for (int i = 0; i < count; i++) {
+            lengths[i] = Move.path(moves[i], scratch);
+            System.arraycopy(scratch, 0, paths, i * Rules.MAX_PATH, lengths[i]);
+        }
+        ready = true;
+    }
+
+    /**
+     * @return number of legal moves in the current position
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @param i index of a legal move
+     * @return the legal move
+     */
+    public int getMove(int i) {
+        return moves[i];
+    }
+
+    /**
+     * @return OK after a move was found, otherwise the reason the last move was refused
+     */
+    public MoveStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Finds the squares that can be chosen next while a move is entered
+     * one square at a time, using the legal moves already worked out for
+     * the position
+     * @param squares squares chosen so far
+     * @param length number of squares chosen, 0 before the first
+     * @return mask of the start squares of the legal moves when length is 0,
+     * otherwise of the next square of each legal move visiting the squares
+     */
+    public int nextSquares(int[] squares, int length) {
+        int mask = 0;
+        for (int i = 0; i < count; i++) {
+            int base = i * Rules.MAX_PATH;
+            if (lengths[i] <= length) {
+                continue;
+            }
+            int same = 0;
+            while (same < length && paths[base + same] == squares[same]) {
+                same++;
+            }
+            if (same == length) {
+                mask |= 1 << paths[base + length];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Finds the legal move written in a CharSequence
+     * @param text move such as 3a-4b, 3a-5c-7e or 9x18
+     * @return the move, or Move.NONE with the reason left in getStatus
+     */
+    public int find(CharSequence text) {
+        int length = MoveParser.parse(text, path);
+        if (length == MoveParser.MALFORMED) {
+            status = MoveStatus.MALFORMED;
+            return Move.NONE;
+        }
+        return find(path, length);
+    }
+
+    /**
+     * Finds the legal move written next in a buffer of ASCII moves, the
+     * buffer position is left after it
+     * @param buffer buffer holding moves separated by whitespace
+     * @return the move, or Move.NONE with the reason left in getStatus
+     */
+    public int find(ByteBuffer buffer) {
+        int length = MoveParser.parse(buffer, path);
+        if (length <= 0) {
+            status = MoveStatus.MALFORMED;
+            return Move.NONE;
+        }
+        return find(path, length);
+    }
+
+    /**
+     * Finds the legal move visiting a list of squares. A path may list
+     * every square of a jump, or only the start and end when a single jump
+     * fits.
+     * @param squares start square followed by each landing square
+     * @param length number of squares
+     * @return the move, or Move.NONE with the reason left in getStatus
+     */
+    public int find(int[] squares, int length) {
+        if (length < 2) {
+            return refuse(MoveStatus.MALFORMED);
+        }
+        for (int i = 0; i < length; i++) {
+            if (squares[i] < 0) {
+                return refuse(MoveStatus.OFF_BOARD);
+            }
+        }
+        if ((position.pieces[position.side] & (1 << squares[0])) == 0) {
+            return refuse(MoveStatus.NOT_YOUR_PIECE);
+        }
+        int found = Move.NONE;
+        int ends = 0;
+        boolean prefix = false;
+        for (int i = 0; i < count; i++) {
+            int base = i * Rules.MAX_PATH;
+            if (paths[base] != squares[0]) {
+                continue;
+            }
+            int steps = lengths[i];
+            int same = 1;
+            while (same < length && same < steps && paths[base + same] == squares[same]) {
+                same++;
+            }
+            if (same == length && steps == length) {
+                status = MoveStatus.OK;
+                return moves[i];
+            }
+            if (same == length) {
+                prefix = true;
+            }
+            if (length == 2 && paths[base + steps - 1] == squares[1]) {
+                found = moves[i];
+                ends++;
+            }
+        }
+        if (ends == 1) {
+            status = MoveStatus.OK;
+            return found;
+        }
+        if (ends > 1) {
+            return refuse(MoveStatus.AMBIGUOUS);
+        }
+        if (prefix) {
+            return refuse(MoveStatus.INCOMPLETE_JUMP);
+        }
+        if (count > 0 && Move.isJump(moves[0])
+                && Math.abs(Bitboard.row(squares[1]) - Bitboard.row(squares[0])) == 1) {
+            return refuse(MoveStatus.JUMP_REQUIRED);
+        }
+        return refuse(MoveStatus.ILLEGAL);
+    }
+
+    /**
+     * Finds the legal move visiting a list of squares in a position. A
+     * single step is checked with a few mask operations when no jump is
+     * available, so games made mostly of quiet moves are replayed without
+     * generating the legal moves of every position; anything else is
+     * checked against the full legal move set.
+     * @param b position the move is played in
+     * @param squares start square followed by each landing square
+     * @param length number of squares
+     * @return the move, or Move.NONE with the reason left in getStatus
+     */
+    public int find(Bitboard b, int[] squares, int length) {
+        if (length == 2 && squares[0] >= 0 && squares[1] >= 0) {
+            int from = 1 << squares[0];
+            int to = 1 << squares[1];
+            int side = b.side;
+            if ((b.pieces[side] & from) != 0 && (b.empty() & to) != 0) {
+                int up = MoveGenerator.upLeft(from) | MoveGenerator.upRight(from);
+                int down = MoveGenerator.downLeft(from) | MoveGenerator.downRight(from);
+                int steps = (b.kings & from) != 0 ? up | down : side == Bitboard.X ? up : down;
+                if ((steps & to) != 0 && MoveGenerator.jumpers(b, side) == 0) {
+                    status = MoveStatus.OK;
+                    return squares[0] | (squares[1] << 5);
+                }
+            }
+        }
+        setPosition(b);
+        return find(squares, length);
+    }
+
+    /**
+     * Records why a move was refused
+     * @param reason status explaining the refusal
+     * @return Move.NONE
+     */
+    private int refuse(MoveStatus reason) {
+        status = reason;
+        return Move.NONE;
+    }
+
+    /**
+     * Checks a batch of submitted moves, each against its own position.
+     * Consecutive submissions for the same position share one legal move
+     * set, so many players answering the same position cost one generation.
+     * @param positions position for each submission
+     * @param texts submitted moves
+     * @param n number of submissions
+     * @param results filled with the legal move for each submission or Move.NONE
+     * @param statuses filled with the status for each submission, may be null
+     * @return number of legal submissions
+     */
+    public int validateAll(Bitboard[] positions, CharSequence[] texts, int n, int[] results, MoveStatus[] statuses) {
+        int legal = 0;
+        for (int i = 0; i < n; i++) {
+            setPosition(positions[i]);
+            results[i] = find(texts[i]);
+            if (statuses != null) {
+                statuses[i] = status;
+            }
+            if (results[i] != Move.NONE) {
+                legal++;
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * Plays a stream of moves from a position, as when importing a game.
+     * Each move is checked against the legal moves of the position it is
+     * played in. Playing stops at the end of the buffer or at the first
+     * move that is not legal, with the reason left in getStatus.
+     * @param b starting position, moves are played on it
+     * @param buffer ASCII moves separated by whitespace
+     * @param played filled with the moves played, may be null
+     * @return number of moves played
+     */
+    public int replay(Bitboard b, ByteBuffer buffer, int[] played) {
+        int n = 0;
+        status = MoveStatus.OK;
+        while (true) {
+            int length = MoveParser.parse(buffer, path);
+            if (length == 0) {
+                return n;
+            }
+            int move = length < 0 ? refuse(MoveStatus.MALFORMED) : find(b, path, length);
+            if (move == Move.NONE) {
+                return n;
+            }
+            b.make(move);
+            if (played != null) {
+                played[n] = move;
+            }
+            n++;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Class containing the opening book reader
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * An opening book holds weighted moves for positions seen in earlier games.
+ * Entries are sorted by the Zobrist hash of the position and then by move,
+ * so every move for a position sits together and a probe is a binary
+ * search over the file. The file is mapped in segments rather than read, so
+ * opening a book costs nothing beyond reading the header and the operating
+ * system keeps only the pages that are probed in memory.
+ *
+ * File layout: int magic, int version, long entry count, then per entry a
+ * long hash, an int move and an int weight.
+ */
+public class OpeningBook implements Closeable {
+
+    public static final int MAGIC = 0x434B424B;
+    public static final int VERSION = 1;
+
+    static final int HEADER = 16;
+    static final int ENTRY = 16;
+
+    //Entries per mapped segment, keeps every segment below the 2 GB mapping limit
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_ENTRIES = 1L << SEGMENT_SHIFT;
+
+    private final FileChannel channel;
+    private final long entries;
+    private final ByteBuffer[] segments;
+
+    /**
+     * Maps an opening book file
+     * @param channel open channel of the file
+     */
+    private OpeningBook(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Opening book file is truncated");
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a checkers opening book file");
+        }
+        entries = header.getLong();
+        if (channel.size() < HEADER + entries * ENTRY) {
+            throw new IOException("Opening book file is truncated");
+        }
+        segments = new ByteBuffer[(int) ((entries + SEGMENT_ENTRIES - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long first = (long) i << SEGMENT_SHIFT;
+            long count = Math.min(SEGMENT_ENTRIES, entries - first);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + first * ENTRY, count * ENTRY);
+        }
+    }
+
+    /**
+     * Opens an opening book written by OpeningBookBuilder
+     * @param file path of the book file
+     * @return book ready to probe
+     * @throws IOException if the file cannot be read or is not an opening book
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new OpeningBook(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of entries in the book
+     */
+    public long size() {
+        return entries;
+    }
+
+    /**
+     * @param i entry number
+     * @return hash of the entry
+     */
+    private long hash(long i) {
+        return segments[(int) (i >>> SEGMENT_SHIFT)].getLong((int) (i & (SEGMENT_ENTRIES - 1)) * ENTRY);
+    }
+
+    /**
+     * @param i entry number
+     * @return move of the entry
+     */
+    private int move(long i) {
+        return segments[(int) (i >>> SEGMENT_SHIFT)].getInt((int) (i & (SEGMENT_ENTRIES - 1)) * ENTRY + 8);
+    }
+
+    /**
+     * @param i entry number
+     * @return weight of the entry
+     */
+    private int weight(long i) {
+        return segments[(int) (i >>> SEGMENT_SHIFT)].getInt((int) (i & (SEGMENT_ENTRIES - 1)) * ENTRY + 12);
+    }
+
+    /**
+     * Finds the first entry for a hash
+     * @param key Zobrist hash of the position
+     * @return number of the first entry with the hash, or -1 if there is none
+     */
+    private long find(long key) {
+        long lo = 0, hi = entries;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (hash(mid) < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < entries && hash(lo) == key ? lo : -1;
+    }
+
+    /**
+     * Looks up the book moves for a position
+     * @param b position to look up, it is not changed
+     * @param moves array filled with the book moves
+     * @param weights array filled with the weight of each move
+     * @return number of book moves, 0 if the position is not in the book
+     */
+    public int probe(Bitboard b, int[] moves, int[] weights) {
+        long i = find(b.hash);
+        int n = 0;
+        if (i < 0) {
+            return 0;
+        }
+        for (; i < entries && hash(i) == b.hash && n < moves.length; i++) {
+            moves[n] = move(i);
+            weights[n++] = weight(i);
+        }
+        return n;
+    }
+
+    /**
+     * Picks a book move at random in proportion to its weight. Moves are
+     * checked against the legal moves, so a hash collision can never make
+     * the engine play an illegal move.
+     * @param b position to look up, it is not changed
+     * @param random source of randomness
+     * @return chosen move or Move.NONE if the position is not in the book
+     */
+    public int choose(Bitboard b, Random random) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] weights = new int[MoveGenerator.MAX_MOVES];
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int n = probe(b, moves, weights);
+        int count = MoveGenerator.generate(b, legal);
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            if (!contains(legal, count, moves[i])) {
+                weights[i] = 0;
+            }
+            total += weights[i];
+        }
+        if (total == 0) {
+            return Move.NONE;
+        }
+        long pick = (long) (random.nextDouble() * total);
+        for (int i = 0; i < n; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * @param list array of moves
+     * @param n number of moves in the array
+     * @param move move to look for
+     * @return true if the move is in the array
+     */
+    private static boolean contains(int[] list, int n, int move) {
+        for (int i = 0; i < n; i++) {
+            if (list[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,317 @@
+/**
+ * Class containing the opening book builder
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Builds an opening book from game records. Every position in the opening
+ * of a game adds one (hash, move, points) record, where the player who
+ * moved scores 2 points for a win, 1 for a draw and 0 for a loss. Records
+ * go to an ExternalSort, so only a fixed buffer of them is ever held on the
+ * heap, and write merges the sorted runs once, adding up the records for
+ * the same position and move as they stream past. The weight of a book move
+ * is the total of its points.
+ *
+ * Game records are read one game per line: moves separated by spaces in
+ * console notation (3a-4b) or standard numbers (9-13, 9x18), move numbers
+ * such as "1." are skipped and the last token is the result, 1-0 when x
+ * won, 0-1 when o won and 1/2-1/2 for a draw. PDN archives are read with
+ * PdnReader.
+ *
+ * Usage: java core.OpeningBookBuilder book [--games file]... [--pdn file]...
+ * [--selfplay N] [--depth D] [--plies P] [--min N] [--buffer records]
+ */
+public class OpeningBookBuilder implements Closeable {
+
+    //Results of a game from the point of view of x
+    public static final int X_WINS = 1;
+    public static final int DRAWN = 0;
+    public static final int O_WINS = -1;
+
+    //Games that reach this many plies in self-play are scored as draws
+    private static final int MAX_GAME_PLIES = 200;
+
+    private final ExternalSort sorter;
+    private final int maxPly;
+    private long games;
+    private long skipped;
+
+    /**
+     * Creates a builder
+     * @param directory directory for temporary files
+     * @param maxPly number of plies from the start of each game added to the book
+     * @param bufferRecords number of records held on the heap before they are written to disk
+     */
+    public OpeningBookBuilder(Path directory, int maxPly, int bufferRecords) {
+        this.maxPly = maxPly;
+        sorter = new ExternalSort(directory, bufferRecords);
+    }
+
+    /**
+     * @return number of games added so far
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * @return number of game records skipped because they could not be read
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Adds the opening of a game played from the initial position
+     * @param moves legal moves of the game in order
+     * @param count number of moves in the array
+     * @param result X_WINS, DRAWN or O_WINS
+     */
+    public synchronized void addGame(int[] moves, int count, int result) throws IOException {
+        Bitboard b = Bitboard.initial();
+        for (int i = 0; i < count && i < maxPly; i++) {
+            int points = result == DRAWN ? 1 : (result == X_WINS) == (b.side == Bitboard.X) ? 2 : 0;
+            sorter.add(b.hash, ((long) moves[i] << 32) | points);
+            b.make(moves[i]);
+        }
+        games++;
+    }
+
+    /**
+     * Reads game records one line at a time, lines that cannot be read are
+     * counted and skipped
+     * @param in reader of game records
+     */
+    public void addGames(BufferedReader in) throws IOException {
+        int[] moves = new int[MAX_GAME_PLIES * 2];
+        MoveValidator validator = new MoveValidator();
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens.length < 2) {
+                continue;
+            }
+            int result = result(tokens[tokens.length - 1]);
+            Bitboard b = Bitboard.initial();
+            int count = 0;
+            for (int i = 0; i < tokens.length - 1 && result != Integer.MIN_VALUE; i++) {
+                if (tokens[i].endsWith(".")) {
+                    continue;
+                }
+                validator.setPosition(b);
+                int move = validator.find(tokens[i]);
+                if (move == Move.NONE || count == moves.length) {
+                    result = Integer.MIN_VALUE;
+                    break;
+                }
+                moves[count++] = move;
+                b.make(move);
+            }
+            if (result == Integer.MIN_VALUE) {
+                skipped++;
+            } else {
+                addGame(moves, count, result);
+            }
+        }
+    }
+
+    /**
+     * Reads every game in a PDN archive. Games with an illegal move, an
+     * unknown result or a starting position other than the initial one are
+     * counted and skipped.
+     * @param reader reader of PDN games
+     */
+    public void addGames(PdnReader reader) throws IOException {
+        PdnGame game = new PdnGame();
+        Bitboard initial = Bitboard.initial();
+        while (reader.next(game)) {
+            if (!game.isValid() || game.result == PdnGame.UNKNOWN || !game.start.equals(initial)) {
+                skipped++;
+            } else {
+                addGame(game.moves, game.count, game.result);
+            }
+        }
+    }
+
+    /**
+     * @param token last token of a game record
+     * @return result of the game or Integer.MIN_VALUE if it is not a result
+     */
+    private static int result(String token) {
+        switch (token) {
+            case "1-0":
+                return X_WINS;
+            case "0-1":
+                return O_WINS;
+            case "1/2-1/2":
+                return DRAWN;
+            default:
+                return Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Plays games of the engine against itself and adds them. The first
+     * plies of each game are random so the games spread over many openings.
+     * @param count number of games
+     * @param depth search depth for each move
+     * @param randomPlies number of random plies at the start of each game
+     * @param seed seed for the random plies
+     */
+    public void selfPlay(int count, int depth, int randomPlies, long seed) {
+        ThreadLocal<Search> searches = ThreadLocal.withInitial(() -> new Search(new TranspositionTable(4)));
+        IntStream.range(0, count).parallel().forEach(game -> {
+            Random random = new Random(seed + game);
+            Search search = searches.get();
+            int[] moves = new int[MAX_GAME_PLIES];
+            int[] list = new int[MoveGenerator.MAX_MOVES];
+            Bitboard b = Bitboard.initial();
+            int result = DRAWN;
+            int ply = 0;
+            for (; ply < MAX_GAME_PLIES; ply++) {
+                int n = MoveGenerator.generate(b, list);
+                if (n == 0) {
+                    result = b.side == Bitboard.X ? O_WINS : X_WINS;
+                    break;
+                }
+                int move = ply < randomPlies ? list[random.nextInt(n)] : search.search(b, depth, 60000);
+                moves[ply] = move;
+                b.make(move);
+            }
+            try {
+                addGame(moves, ply, result);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Merges everything added so far into a book file
+     * @param file path to write
+     * @param minGames moves played in fewer games than this are left out
+     * @return number of entries written
+     */
+    public long write(Path file, int minGames) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            out.position(OpeningBook.HEADER);
+            long[] entries = new long[1];
+            //Totals for the position and move currently streaming past
+            long[] current = {0, Move.NONE, 0, 0};
+            ExternalSort.Sink flush = (key, value) -> {
+                if (current[1] != Move.NONE && current[2] >= minGames && current[3] > 0) {
+                    if (buffer.remaining() < OpeningBook.ENTRY) {
+                        drain(out, buffer);
+                    }
+                    buffer.putLong(current[0]).putInt((int) current[1]).putInt((int) Math.min(current[3], Integer.MAX_VALUE));
+                    entries[0]++;
+                }
+                current[0] = key;
+                current[1] = value >>> 32;
+                current[2] = 0;
+                current[3] = 0;
+            };
+            sorter.merge((key, value) -> {
+                if (key != current[0] || (value >>> 32) != current[1]) {
+                    flush.accept(key, value);
+                }
+                current[2]++;
+                current[3] += value & 0xFFFFFFFFL;
+            });
+            flush.accept(0, 0);
+            drain(out, buffer);
+            buffer.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putLong(entries[0]);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer, buffer.position());
+            }
+            return entries[0];
+        }
+    }
+
+    /**
+     * Writes the contents of a buffer and empties it
+     * @param out channel to write to
+     * @param buffer buffer holding data
+     */
+    private static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Deletes the temporary files
+     */
+    @Override
+    public void close() throws IOException {
+        sorter.close();
+    }
+
+    /**
+     * Builds an opening book from the command line
+     * @param args output file followed by options
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: java core.OpeningBookBuilder book [--games file]... [--pdn file]..."
+                    + " [--selfplay N] [--depth D] [--plies P] [--min N] [--buffer records]");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        int selfPlay = 0, depth = 6, plies = 16, min = 1, buffer = 1 << 22;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--selfplay": selfPlay = Integer.parseInt(args[i + 1]); break;
+                case "--depth": depth = Integer.parseInt(args[i + 1]); break;
+                case "--plies": plies = Integer.parseInt(args[i + 1]); break;
+                case "--min": min = Integer.parseInt(args[i + 1]); break;
+                case "--buffer": buffer = Integer.parseInt(args[i + 1]); break;
+                case "--games":
+                case "--pdn": break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        Path directory = file.toAbsolutePath().getParent();
+        try (OpeningBookBuilder builder = new OpeningBookBuilder(directory, plies, buffer)) {
+            for (int i = 1; i + 1 < args.length; i += 2) {
+                if (args[i].equals("--games")) {
+                    try (BufferedReader in = Files.newBufferedReader(Paths.get(args[i + 1]))) {
+                        builder.addGames(in);
+                    }
+                } else if (args[i].equals("--pdn")) {
+                    try (PdnReader reader = PdnReader.open(Paths.get(args[i + 1]))) {
+                        builder.addGames(reader);
+                    }
+                }
+            }
+            if (selfPlay > 0) {
+                builder.selfPlay(selfPlay, depth, 4, 0x5EED);
+            }
+            long entries = builder.write(file, min);
+            System.out.println("Wrote " + entries + " entries from " + builder.getGames() + " games ("
+                    + builder.getSkipped() + " skipped) to " + file + " in "
+                    + (System.nanoTime() - start) / 1000000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Class containing a multi-threaded search built from several Search objects
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Lazy SMP: every thread searches the root position on its own board and
+ * the threads only cooperate through a shared transposition table. Helper
+ * threads fill the table with results the main thread then finds, and the
+ * main thread's move is played.
+ */
+public class ParallelSearch {
+
+    private final Search[] workers;
+    private final ForkJoinPool pool;
+    private final TranspositionTable tt;
+
+    //Results of the last search
+    private long nodes;
+    private long elapsed;
+
+    /**
+     * Creates a parallel search
+     * @param threads number of threads searching, at least 1
+     * @param tt table of positions shared by all threads
+     */
+    public ParallelSearch(int threads, TranspositionTable tt) {
+        this.tt = tt;
+        workers = new Search[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Search(tt, i);
+        }
+        //A single thread searches on the caller's thread
+        pool = workers.length > 1 ? new ForkJoinPool(workers.length) : null;
+    }
+
+    /**
+     * Sets the endgame tablebase probed by every thread
+     * @param tablebase tablebase to probe or null to search without one
+     */
+    public void setTablebase(Tablebase tablebase) {
+        for (Search w : workers) {
+            w.setTablebase(tablebase);
+        }
+    }
+
+    /**
+     * Sets the listener told about each iteration the main thread completes
+     * @param listener listener or null for none
+     */
+    public void setListener(Search.Listener listener) {
+        workers[0].setListener(listener);
+    }
+
+    /**
+     * Searches a position on every thread until the main thread hits the depth or time limit
+     * @param position position to search, it is not changed
+     * @param maxDepth deepest iteration to start
+     * @param millis time limit in milliseconds
+     * @return best move found or Move.NONE if the side to move has no moves
+     */
+    public int search(Bitboard position, int maxDepth, long millis) {
+        long start = System.nanoTime();
+        tt.newSearch();
+        //Reset every worker before any starts so a late starter cannot miss a stop
+        for (Search w : workers) {
+            w.start(position, millis);
+        }
+        int move;
+        if (pool == null) {
+            move = workers[0].iterate(maxDepth);
+        } else {
+            ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[workers.length - 1];
+            for (int i = 1; i < workers.length; i++) {
+                Search w = workers[i];
+                helpers[i - 1] = pool.submit(() -> w.iterate(maxDepth));
+            }
+            move = pool.submit(() -> workers[0].iterate(maxDepth)).join();
+            for (int i = 1; i < workers.length; i++) {
+                workers[i].stop();
+            }
+            for (ForkJoinTask<?> h : helpers) {
+                h.join();
+            }
+        }
+        elapsed = System.nanoTime() - start;
+        nodes = 0;
+        for (Search w : workers) {
+            nodes += w.getNodes();
+        }
+        return move;
+    }
+
+    /**
+     * Stops a running search on every thread
+     */
+    public void stop() {
+        for (Search w : workers) {
+            w.stop();
+        }
+    }
+
+    /**
+     * Stops the worker threads, the object cannot search after this
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @return number of threads searching
+     */
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * @return the main thread's search, holding the move, score and line played
+     */
+    public Search getMain() {
+        return workers[0];
+    }
+
+    /**
+     * @return depth completed by the main thread
+     */
+    public int getDepth() {
+        return workers[0].getDepth();
+    }
+
+    /**
+     * @return score found by the main thread for the side to move
+     */
+    public int getScore() {
+        return workers[0].getScore();
+    }
+
+    /**
+     * @return principal variation found by the main thread
+     */
+    public String getPv() {
+        return workers[0].getPv();
+    }
+
+    /**
+     * @return nodes visited by all threads in the last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return time taken by the last search in milliseconds
+     */
+    public long getMillis() {
+        return elapsed / 1000000L;
+    }
+
+    /**
+     * @return nodes visited per second by all threads in the last search
+     */
+    public long getNodesPerSecond() {
+        return elapsed == 0 ? 0 : nodes * 1000000000L / elapsed;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Class containing one game read from or written to a PDN file
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A game in Portable Draughts Notation: its tag pairs, starting position,
+ * packed moves and result. PdnReader fills the same object again for every
+ * game so reading an archive does not build up garbage, so callers must
+ * copy anything they want to keep before reading the next game.
+ */
+public class PdnGame {
+
+    //Results, from the point of view of x who plays Black and moves first
+    public static final int X_WINS = 1;
+    public static final int DRAWN = 0;
+    public static final int O_WINS = -1;
+    public static final int UNKNOWN = 2;
+
+    //Returned by parseResult for text that is not a result
+    public static final int NOT_A_RESULT = -2;
+
+    //Longest game that can be held, longer games are cut off and reported
+    public static final int MAX_PLIES = 1024;
+
+    public final Map<String, String> tags = new LinkedHashMap<>();
+    public final Bitboard start = new Bitboard();
+    public final int[] moves = new int[MAX_PLIES];
+    public int count;
+    public int result = UNKNOWN;
+
+    //Line of the file the game starts on
+    public long line;
+
+    //Description and line of the first move that could not be played, or null
+    public String error;
+    public long errorLine;
+
+    /**
+     * Empties the game so it can be filled again
+     */
+    public void clear() {
+        tags.clear();
+        start.set(Bitboard.initial());
+        count = 0;
+        result = UNKNOWN;
+        line = 0;
+        error = null;
+        errorLine = 0;
+    }
+
+    /**
+     * Adds a move to the game
+     * @param move packed legal move
+     */
+    public void add(int move) {
+        moves[count++] = move;
+    }
+
+    /**
+     * @return true if every move in the movetext could be played
+     */
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * Plays the game through to its final position
+     * @return position after the last move
+     */
+    public Bitboard finalPosition() {
+        Bitboard b = start.copy();
+        for (int i = 0; i < count; i++) {
+            b.make(moves[i]);
+        }
+        return b;
+    }
+
+    /**
+     * Reads a PDN result token
+     * @param token text such as 1-0, 0-1, 1/2-1/2 or *
+     * @return X_WINS, DRAWN, O_WINS or UNKNOWN, or NOT_A_RESULT
+     */
+    public static int parseResult(String token) {
+        switch (token) {
+            case "1-0":
+            case "2-0":
+                return X_WINS;
+            case "0-1":
+            case "0-2":
+                return O_WINS;
+            case "1/2-1/2":
+            case "1-1":
+                return DRAWN;
+            case "*":
+                return UNKNOWN;
+            default:
+                return NOT_A_RESULT;
+        }
+    }
+
+    /**
+     * @param result X_WINS, DRAWN, O_WINS or UNKNOWN
+     * @return the PDN result token
+     */
+    public static String resultText(int result) {
+        switch (result) {
+            case X_WINS:
+                return "1-0";
+            case O_WINS:
+                return "0-1";
+            case DRAWN:
+                return "1/2-1/2";
+            default:
+                return "*";
+        }
+    }
+}
@@ -0,0 +1,406 @@
+/**
+ * Class containing the streaming PDN reader
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import core.Rules.MoveStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads games in Portable Draughts Notation from a channel one game at a
+ * time. The file is read through a fixed buffer, so archives of any size
+ * are read with the same small amount of memory, and every move is
+ * replayed through a MoveValidator as it is read, so a game that comes
+ * back without an error is known to be legal from start to finish.
+ *
+ * Tag pairs, move numbers, comments in braces, line comments, variations
+ * in parentheses, NAGs and move strength marks such as ! and ? are read
+ * and skipped. A FEN tag sets the starting position. Moves may be written
+ * with standard numbers or console squares, see MoveParser. The first
+ * move that cannot be played is reported with its line number and the
+ * rest of that game is skipped.
+ *
+ * Usage: java core.PdnReader file [--out file]
+ */
+public class PdnReader implements Closeable {
+
+    //Longest token kept, anything longer is reported as a bad move
+    private static final int MAX_TOKEN = 256;
+
+    private final ReadableByteChannel channel;
+    private final byte[] bytes = new byte[1 << 16];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int position;
+    private int limit;
+    private boolean eof;
+    private long line = 1;
+
+    private final byte[] token = new byte[MAX_TOKEN];
+    private final ByteBuffer tokenBuffer = ByteBuffer.wrap(token);
+    private int tokenLength;
+    private final StringBuilder text = new StringBuilder();
+
+    private final MoveValidator validator = new MoveValidator();
+    private final int[] path = new int[Rules.MAX_PATH];
+    private final Bitboard board = new Bitboard();
+
+    private long games;
+    private long moves;
+    private long errors;
+
+    /**
+     * Creates a reader
+     * @param channel channel holding PDN text
+     */
+    public PdnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a PDN file
+     * @param file path of the file
+     * @return reader positioned before the first game
+     */
+    public static PdnReader open(Path file) throws IOException {
+        return new PdnReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * @return number of games read so far
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * @return number of moves replayed so far
+     */
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return number of games that held a move that could not be played
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Looks at the next byte without consuming it
+     * @return the byte or -1 at the end of the channel
+     */
+    private int peek() throws IOException {
+        if (position == limit) {
+            if (eof) {
+                return -1;
+            }
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            position = 0;
+            limit = Math.max(read, 0);
+            if (read < 0) {
+                eof = true;
+                return -1;
+            }
+        }
+        return bytes[position] & 0xFF;
+    }
+
+    /**
+     * Consumes the next byte, counting lines
+     * @return the byte or -1 at the end of the channel
+     */
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            position++;
+            if (c == '\n') {
+                line++;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Reads the next game
+     * @param game game to fill, it is cleared first
+     * @return false when there are no more games
+     */
+    public boolean next(PdnGame game) throws IOException {
+        game.clear();
+        boolean started = false;
+        boolean inMoves = false;
+        while (true) {
+            int c = peek();
+            while (c >= 0 && MoveParser.isSpace(c)) {
+                read();
+                c = peek();
+            }
+            if (c < 0) {
+                return started && finish(game);
+            }
+            if (!started) {
+                game.line = line;
+                started = true;
+            }
+            if (c == '[') {
+                if (inMoves) {
+                    return finish(game);
+                }
+                readTag(game);
+                continue;
+            }
+            if (c == '{' || c == '(' || c == ';') {
+                skip();
+                continue;
+            }
+            long tokenLine = line;
+            readToken();
+            int result = result();
+            if (result != PdnGame.NOT_A_RESULT) {
+                game.result = result;
+                return finish(game);
+            }
+            if (!inMoves) {
+                inMoves = true;
+                board.set(game.start);
+            }
+            play(game, tokenLine);
+        }
+    }
+
+    /**
+     * Completes a game once its movetext has ended
+     * @param game game being read
+     * @return true
+     */
+    private boolean finish(PdnGame game) {
+        if (game.result == PdnGame.UNKNOWN) {
+            String tag = game.tags.get("Result");
+            if (tag != null && PdnGame.parseResult(tag) != PdnGame.NOT_A_RESULT) {
+                game.result = PdnGame.parseResult(tag);
+            }
+        }
+        games++;
+        if (game.error != null) {
+            errors++;
+        }
+        return true;
+    }
+
+    /**
+     * Reads a tag pair such as [Event "Club match"]
+     * @param game game receiving the tag
+     */
+    private void readTag(PdnGame game) throws IOException {
+        long tagLine = line;
+        read();
+        text.setLength(0);
+        int c;
+        while ((c = peek()) >= 0 && c != '"' && c != ']') {
+            read();
+            if (!MoveParser.isSpace(c)) {
+                text.append((char) c);
+            }
+        }
+        String name = text.toString();
+        text.setLength(0);
+        if (c == '"') {
+            read();
+            int start = 0;
+            byte[] value = new byte[64];
+            while ((c = read()) >= 0 && c != '"') {
+                if (c == '\\') {
+                    c = read();
+                }
+                if (start == value.length) {
+                    value = java.util.Arrays.copyOf(value, start * 2);
+                }
+                value[start++] = (byte) c;
+            }
+            text.append(new String(value, 0, start, StandardCharsets.UTF_8));
+        }
+        while ((c = read()) >= 0 && c != ']') {
+            //Skip to the end of the tag
+        }
+        String value = text.toString();
+        game.tags.put(name, value);
+        if (name.equals("FEN")) {
+            try {
+                String fen = value.endsWith(".") ? value.substring(0, value.length() - 1) : value;
+                game.start.set(Bitboard.fromFen(fen));
+            } catch (IllegalArgumentException e) {
+                error(game, tagLine, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Skips a comment in braces, a variation in parentheses or a line comment
+     */
+    private void skip() throws IOException {
+        int open = read();
+        if (open == ';') {
+            int c;
+            while ((c = read()) >= 0 && c != '\n') {
+                //Skip to the end of the line
+            }
+            return;
+        }
+        int close = open == '{' ? '}' : ')';
+        int depth = 1;
+        int c;
+        while (depth > 0 && (c = read()) >= 0) {
+            if (c == open && open == '(') {
+                depth++;
+            } else if (c == '{' && open == '(') {
+                //Comments inside a variation may hold parentheses
+                int d;
+                while ((d = read()) >= 0 && d != '}') {
+                    //Skip the comment
+                }
+            } else if (c == close) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Reads the next token of movetext into the token buffer
+     */
+    private void readToken() throws IOException {
+        tokenLength = 0;
+        int c;
+        while ((c = peek()) >= 0 && !MoveParser.isSpace(c) && c != '[' && c != '{' && c != '(' && c != ';') {
+            read();
+            if (tokenLength < MAX_TOKEN) {
+                token[tokenLength] = (byte) c;
+            }
+            tokenLength++;
+        }
+    }
+
+    /**
+     * Checks whether the token is a game result, only creating a String
+     * for tokens shaped like one
+     * @return the result or NOT_A_RESULT
+     */
+    private int result() {
+        boolean shaped = tokenLength == 1 && token[0] == '*'
+                || tokenLength == 3 && token[1] == '-' && token[0] <= '2' && token[2] <= '2'
+                || tokenLength == 7 && token[1] == '/';
+        if (!shaped) {
+            return PdnGame.NOT_A_RESULT;
+        }
+        return PdnGame.parseResult(new String(token, 0, tokenLength, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Replays the move held in the token buffer
+     * @param game game being read
+     * @param tokenLine line the token was read from
+     */
+    private void play(PdnGame game, long tokenLine) {
+        if (game.error != null) {
+            return;
+        }
+        int start = 0;
+        int end = Math.min(tokenLength, MAX_TOKEN);
+        //Move numbers such as 12. or 12... may be written against the move
+        int i = 0;
+        while (i < end && token[i] >= '0' && token[i] <= '9') {
+            i++;
+        }
+        if (i < end && token[i] == '.') {
+            while (i < end && token[i] == '.') {
+                i++;
+            }
+            start = i;
+        }
+        //Strength marks such as ! and ?! after the move
+        while (end > start && (token[end - 1] == '!' || token[end - 1] == '?')) {
+            end--;
+        }
+        if (start == end || token[start] == '$') {
+            return;
+        }
+        if (game.count == PdnGame.MAX_PLIES) {
+            error(game, tokenLine, "Game is longer than " + PdnGame.MAX_PLIES + " moves");
+            return;
+        }
+        tokenBuffer.limit(end).position(start);
+        int length = tokenLength > MAX_TOKEN ? MoveParser.MALFORMED : MoveParser.parse(tokenBuffer, path);
+        int move = length <= 0 ? Move.NONE : validator.find(board, path, length);
+        if (move == Move.NONE) {
+            MoveStatus status = length <= 0 ? MoveStatus.MALFORMED : validator.getStatus();
+            error(game, tokenLine, "Move " + (game.count / 2 + 1) + " "
+                    + new String(token, start, Math.min(end, MAX_TOKEN) - start, StandardCharsets.US_ASCII)
+                    + " cannot be played: " + status.getMessage());
+            return;
+        }
+        board.make(move);
+        game.add(move);
+        moves++;
+    }
+
+    /**
+     * Records the first error in a game
+     * @param game game being read
+     * @param at line of the error
+     * @param message description of the error
+     */
+    private static void error(PdnGame game, long at, String message) {
+        if (game.error == null) {
+            game.error = message;
+            game.errorLine = at;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Replays every game in a PDN file and reports the moves that cannot be played
+     * @param args input file and optional --out file to write the legal games to
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: java core.PdnReader file [--out file]");
+            return;
+        }
+        Path out = args.length >= 3 && args[1].equals("--out") ? Paths.get(args[2]) : null;
+        long start = System.nanoTime();
+        PdnGame game = new PdnGame();
+        try (PdnReader reader = open(Paths.get(args[0]));
+             PdnWriter writer = out == null ? null : PdnWriter.create(out)) {
+            while (reader.next(game)) {
+                if (!game.isValid()) {
+                    System.out.println(args[0] + ":" + game.errorLine + ": " + game.error);
+                } else if (writer != null) {
+                    writer.write(game);
+                }
+            }
+            long nanos = Math.max(1, System.nanoTime() - start);
+            System.out.println(reader.getGames() + " games, " + reader.getMoves() + " moves, "
+                    + reader.getErrors() + " with errors in " + nanos / 1000000 + " ms ("
+                    + reader.getMoves() * 1000000000L / nanos + " moves/s)");
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * Class containing the streaming PDN writer
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Writes games in Portable Draughts Notation to a channel through a fixed
+ * buffer. Moves are written with the standard 1-32 square numbers, quiet
+ * moves as 11-15 and jumps with every landing square, such as 15x24x31,
+ * so the output can be read back by PdnReader and by other programs.
+ */
+public class PdnWriter implements Closeable {
+
+    //Movetext lines are wrapped once they pass this many characters
+    private static final int LINE_WIDTH = 79;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    private final int[] path = new int[Rules.MAX_PATH];
+    private int column;
+    private long games;
+
+    /**
+     * Creates a writer
+     * @param channel channel receiving PDN text
+     */
+    public PdnWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Creates a PDN file, replacing any file already there
+     * @param file path of the file
+     * @return writer at the start of the file
+     */
+    public static PdnWriter create(Path file) throws IOException {
+        return new PdnWriter(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * @return number of games written so far
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Writes a game. A Result tag is added when the game has none, and a FEN
+     * tag when it does not start from the initial position.
+     * @param game game to write
+     */
+    public void write(PdnGame game) throws IOException {
+        for (Map.Entry<String, String> tag : game.tags.entrySet()) {
+            if (tag.getKey().equals("Result")) {
+                tag(tag.getKey(), PdnGame.resultText(game.result));
+            } else if (tag.getKey().equals("FEN")) {
+                tag(tag.getKey(), game.start.toFen());
+            } else {
+                tag(tag.getKey(), tag.getValue());
+            }
+        }
+        if (!game.tags.containsKey("Result")) {
+            tag("Result", PdnGame.resultText(game.result));
+        }
+        boolean initial = game.start.equals(Bitboard.initial());
+        if (!initial && !game.tags.containsKey("FEN")) {
+            tag("FEN", game.start.toFen());
+        }
+        column = 0;
+        int side = game.start.side;
+        int number = 1;
+        for (int i = 0; i < game.count; i++) {
+            //Black is x and moves first, a game starting with White opens with 1...
+            if (side == Bitboard.X) {
+                word(number + ".");
+            } else if (i == 0) {
+                word(number + "...");
+            }
+            move(game.moves[i]);
+            if (side == Bitboard.O) {
+                number++;
+            }
+            side ^= 1;
+        }
+        word(PdnGame.resultText(game.result));
+        put('\n');
+        put('\n');
+        games++;
+    }
+
+    /**
+     * Writes a tag pair on its own line
+     * @param name tag name
+     * @param value tag value, quotes and backslashes are escaped
+     */
+    private void tag(String name, String value) throws IOException {
+        put('[');
+        put(name);
+        put(' ');
+        put('"');
+        put(value.replace("\\", "\\\\").replace("\"", "\\\""));
+        put('"');
+        put(']');
+        put('\n');
+    }
+
+    /**
+     * Writes a move in standard numbers, wrapping the line if needed
+     * @param move packed move
+     */
+    private void move(int move) throws IOException {
+        int n = Move.path(move, path);
+        //Jumps may need many squares, so work out the width before writing
+        int width = n - 1;
+        for (int i = 0; i < n; i++) {
+            width += Move.toStandard(path[i]) < 10 ? 1 : 2;
+        }
+        space(width);
+        char separator = Move.isJump(move) ? 'x' : '-';
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                put(separator);
+            }
+            int number = Move.toStandard(path[i]);
+            if (number >= 10) {
+                put((char) ('0' + number / 10));
+            }
+            put((char) ('0' + number % 10));
+        }
+        column += width;
+    }
+
+    /**
+     * Writes a word of movetext, wrapping the line if needed
+     * @param word move number or result
+     */
+    private void word(String word) throws IOException {
+        space(word.length());
+        put(word);
+        column += word.length();
+    }
+
+    /**
+     * Writes the space or line break before a word of movetext
+     * @param width width of the word about to be written
+     */
+    private void space(int width) throws IOException {
+        if (column > 0 && column + 1 + width > LINE_WIDTH) {
+            put('\n');
+            column = 0;
+        } else if (column > 0) {
+            put(' ');
+            column++;
+        }
+    }
+
+    /**
+     * @param c ASCII character to write
+     */
+    private void put(char c) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) c);
+    }
+
+    /**
+     * @param s text to write in UTF-8
+     */
+    private void put(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(b);
+        }
+    }
+
+    /**
+     * Writes everything buffered so far to the channel
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
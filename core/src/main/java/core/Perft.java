@@ -0,0 +1,228 @@
+/**
+ * Class containing the perft tool for checking and timing move generation
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the game tree to a fixed depth. The counts for
+ * the starting position are published for English draughts (7, 49, 302,
+ * 1469, 7361, 36768, 179740, 845931, ...) so any difference points to a
+ * bug in the move rules.
+ *
+ * Usage: java core.Perft depth [--fen FEN] [--divide] [--hash MB] [--threads N]
+ */
+public class Perft {
+
+    /**
+     * Keys mixed into the hash so counts to different depths do not
+     * collide. They must not be piece keys: a piece key for the depth
+     * would let a position at one depth match another position that
+     * differs by exactly that piece at the other depth. Depths past the
+     * end of the table are counted without it.
+     */
+    private static final long[] DEPTH = new long[64];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5065726674L);
+        for (int d = 0; d < DEPTH.length; d++) {
+            DEPTH[d] = random.nextLong();
+        }
+    }
+
+    //Board and move buffers for one thread
+    private final Bitboard board;
+    private final int[][] moves;
+
+    //Optional table of subtree counts, stored as (key ^ count, count) pairs
+    private final long[] table;
+    private final int mask;
+
+    /**
+     * Creates a perft counter for one thread
+     * @param position position to count from, it is copied
+     * @param depth deepest depth that will be counted
+     * @param table shared table of subtree counts or null to count without one
+     */
+    public Perft(Bitboard position, int depth, long[] table) {
+        board = position.copy();
+        board.rehash();
+        moves = new int[Math.max(depth, 1) + 1][MoveGenerator.MAX_MOVES];
+        this.table = table;
+        mask = table == null ? 0 : (table.length >> 1) - 1;
+    }
+
+    /**
+     * Creates a table for caching subtree counts
+     * @param megabytes size of the table in MB, rounded down to a power of two
+     * @return table to pass to the constructor
+     */
+    public static long[] createTable(int megabytes) {
+        long entries = Long.highestOneBit(Math.max(1, megabytes) * 1024L * 1024L / 16);
+        return new long[(int) Math.min(entries, 1 << 29) * 2];
+    }
+
+    /**
+     * Counts the leaf nodes below the position
+     * @param depth number of plies to count
+     * @return number of move paths of exactly that length
+     */
+    public long count(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] list = moves[depth];
+        int n = MoveGenerator.generate(board, list);
+        //Bulk counting, the moves at the last ply do not need to be played
+        if (depth == 1) {
+            return n;
+        }
+        boolean hashed = table != null && depth < DEPTH.length;
+        long key = 0;
+        if (hashed) {
+            key = board.hash ^ DEPTH[depth];
+            int i = ((int) key & mask) << 1;
+            long stored = table[i + 1];
+            if ((table[i] ^ stored) == key) {
+                return stored;
+            }
+        }
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            int undo = board.make(list[i]);
+            total += count(depth - 1);
+            board.unmake(list[i], undo);
+        }
+        if (hashed) {
+            int i = ((int) key & mask) << 1;
+            table[i] = key ^ total;
+            table[i + 1] = total;
+        }
+        return total;
+    }
+
+    /**
+     * Counts the leaf nodes below each root move
+     * @param position position to count from
+     * @param depth number of plies to count
+     * @param table shared table of subtree counts or null
+     * @param threads number of threads to split the root moves across
+     * @param rootMoves buffer filled with the root moves
+     * @param counts buffer filled with the count below each root move
+     * @return number of root moves
+     */
+    public static int divide(Bitboard position, int depth, long[] table, int threads, int[] rootMoves, long[] counts) {
+        int n = MoveGenerator.generate(position, rootMoves);
+        if (depth <= 1 || threads <= 1) {
+            Perft p = new Perft(position, depth, table);
+            for (int i = 0; i < n; i++) {
+                int undo = p.board.make(rootMoves[i]);
+                counts[i] = p.count(depth - 1);
+                p.board.unmake(rootMoves[i], undo);
+            }
+            return n;
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            RootTask[] tasks = new RootTask[n];
+            for (int i = 0; i < n; i++) {
+                tasks[i] = new RootTask(position, rootMoves[i], depth, table);
+                pool.execute(tasks[i]);
+            }
+            for (int i = 0; i < n; i++) {
+                counts[i] = tasks[i].join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return n;
+    }
+
+    /**
+     * Task counting the subtree below one root move on its own board
+     */
+    private static class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Bitboard position;
+        private final int move;
+        private final int depth;
+        private final long[] table;
+
+        RootTask(Bitboard position, int move, int depth, long[] table) {
+            this.position = position;
+            this.move = move;
+            this.depth = depth;
+            this.table = table;
+        }
+
+        @Override
+        protected Long compute() {
+            Perft p = new Perft(position, depth, table);
+            p.board.make(move);
+            return p.count(depth - 1);
+        }
+    }
+
+    /**
+     * Runs perft from the command line
+     * @param args depth followed by the options listed in the class comment
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java core.Perft depth [--fen FEN] [--divide] [--hash MB] [--threads N]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        Bitboard position = Bitboard.initial();
+        boolean divide = false;
+        int hash = 0;
+        int threads = 1;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fen":
+                    position = Bitboard.fromFen(args[++i]);
+                    break;
+                case "--divide":
+                    divide = true;
+                    break;
+                case "--hash":
+                    hash = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.out.println("Unknown option " + args[i]);
+                    return;
+            }
+        }
+        long[] table = hash > 0 ? createTable(hash) : null;
+
+        System.out.println(position);
+        long start = System.nanoTime();
+        int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+        long[] counts = new long[MoveGenerator.MAX_MOVES];
+        long total;
+        if (depth == 0) {
+            total = 1;
+        } else {
+            int n = divide(position, depth, table, threads, rootMoves, counts);
+            total = 0;
+            for (int i = 0; i < n; i++) {
+                total += counts[i];
+                if (divide) {
+                    System.out.println(Move.toString(rootMoves[i]) + ": " + counts[i]);
+                }
+            }
+        }
+        long nanos = Math.max(1, System.nanoTime() - start);
+        System.out.println("perft(" + depth + ") = " + total + " in " + nanos / 1000000 + " ms, "
+                + total * 1000000000L / nanos + " nodes/s");
+    }
+}
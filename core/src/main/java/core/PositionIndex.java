@@ -0,0 +1,220 @@
+/**
+ * Class containing the position index reader
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A position index lists, for every position reached in a game database,
+ * the games that reached it and how those games ended. Positions are keyed
+ * by Zobrist hash and sorted, so a lookup is a binary search over the
+ * mapped file followed by reading one contiguous run of game numbers. As
+ * with the opening book, two positions sharing a hash would share an entry;
+ * with 64 bit hashes this is not expected to happen in practice.
+ *
+ * File layout: int magic, int version, long position count, long posting
+ * count, then per position a long hash, a long index of its first posting,
+ * an int game count and int counts of x wins, draws and o wins, then the
+ * postings, an int game number each, in increasing order per position.
+ */
+public class PositionIndex implements Closeable {
+
+    public static final int MAGIC = 0x434B5049;
+    public static final int VERSION = 1;
+
+    static final int HEADER = 24;
+    static final int ENTRY = 32;
+
+    //Entries per mapped segment, keeps every segment below the 2 GB mapping limit
+    private static final int SEGMENT_SHIFT = 25;
+    private static final long SEGMENT_ENTRIES = 1L << SEGMENT_SHIFT;
+    private static final int POSTING_SHIFT = 28;
+    private static final long SEGMENT_POSTINGS = 1L << POSTING_SHIFT;
+
+    /**
+     * How the games reaching a position ended
+     */
+    public static class Stats {
+        public final int games;
+        public final int xWins;
+        public final int draws;
+        public final int oWins;
+
+        /**
+         * @param games number of games that reached the position
+         * @param xWins number of those games won by x
+         * @param draws number of those games drawn
+         * @param oWins number of those games won by o
+         */
+        public Stats(int games, int xWins, int draws, int oWins) {
+            this.games = games;
+            this.xWins = xWins;
+            this.draws = draws;
+            this.oWins = oWins;
+        }
+
+        @Override
+        public String toString() {
+            return games + " games, x won " + xWins + ", drawn " + draws + ", o won " + oWins;
+        }
+    }
+
+    private final FileChannel channel;
+    private final long positions;
+    private final long postings;
+    private final ByteBuffer[] segments;
+    private final ByteBuffer[] postingSegments;
+
+    /**
+     * Maps a position index file
+     * @param channel open channel of the file
+     */
+    private PositionIndex(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Position index file is truncated");
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a checkers position index file");
+        }
+        positions = header.getLong();
+        postings = header.getLong();
+        long postingStart = HEADER + positions * ENTRY;
+        if (channel.size() < postingStart + postings * 4) {
+            throw new IOException("Position index file is truncated");
+        }
+        segments = new ByteBuffer[(int) ((positions + SEGMENT_ENTRIES - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long first = (long) i << SEGMENT_SHIFT;
+            long count = Math.min(SEGMENT_ENTRIES, positions - first);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + first * ENTRY, count * ENTRY);
+        }
+        postingSegments = new ByteBuffer[(int) ((postings + SEGMENT_POSTINGS - 1) >>> POSTING_SHIFT)];
+        for (int i = 0; i < postingSegments.length; i++) {
+            long first = (long) i << POSTING_SHIFT;
+            long count = Math.min(SEGMENT_POSTINGS, postings - first);
+            postingSegments[i] = channel.map(FileChannel.MapMode.READ_ONLY, postingStart + first * 4, count * 4);
+        }
+    }
+
+    /**
+     * Opens a position index written by PositionIndexBuilder
+     * @param file path of the index file
+     * @return index ready to probe
+     * @throws IOException if the file cannot be read or is not a position index
+     */
+    public static PositionIndex open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new PositionIndex(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of distinct positions in the index
+     */
+    public long size() {
+        return positions;
+    }
+
+    /**
+     * @return total number of (position, game) pairs in the index
+     */
+    public long getPostings() {
+        return postings;
+    }
+
+    /**
+     * @param i entry number
+     * @return the mapped segment holding the entry
+     */
+    private ByteBuffer segment(long i) {
+        return segments[(int) (i >>> SEGMENT_SHIFT)];
+    }
+
+    /**
+     * @param i entry number
+     * @return position of the entry within its segment
+     */
+    private static int at(long i) {
+        return (int) (i & (SEGMENT_ENTRIES - 1)) * ENTRY;
+    }
+
+    /**
+     * Finds the entry for a hash
+     * @param key Zobrist hash of the position
+     * @return entry number, or -1 if the position is not in the index
+     */
+    private long find(long key) {
+        long lo = 0, hi = positions;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (segment(mid).getLong(at(mid)) < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < positions && segment(lo).getLong(at(lo)) == key ? lo : -1;
+    }
+
+    /**
+     * Looks up how the games reaching a position ended
+     * @param b position to look up, it is not changed
+     * @return the results, or null if no game reached the position
+     */
+    public Stats stats(Bitboard b) {
+        long i = find(b.hash);
+        if (i < 0) {
+            return null;
+        }
+        ByteBuffer segment = segment(i);
+        int base = at(i);
+        return new Stats(segment.getInt(base + 16), segment.getInt(base + 20),
+                segment.getInt(base + 24), segment.getInt(base + 28));
+    }
+
+    /**
+     * Lists the games that reached a position, a page at a time
+     * @param b position to look up, it is not changed
+     * @param from number of games to skip
+     * @param ids array filled with game numbers in increasing order
+     * @return number of game numbers written, 0 once every game has been listed
+     */
+    public int games(Bitboard b, int from, int[] ids) {
+        long i = find(b.hash);
+        if (i < 0) {
+            return 0;
+        }
+        ByteBuffer segment = segment(i);
+        int base = at(i);
+        long first = segment.getLong(base + 8);
+        int count = segment.getInt(base + 16);
+        int n = Math.max(0, Math.min(ids.length, count - from));
+        for (int k = 0; k < n; k++) {
+            long p = first + from + k;
+            ids[k] = postingSegments[(int) (p >>> POSTING_SHIFT)].getInt((int) (p & (SEGMENT_POSTINGS - 1)) * 4);
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
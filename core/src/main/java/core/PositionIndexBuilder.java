@@ -0,0 +1,254 @@
+/**
+ * Class containing the position index builder
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds a position index from a game database, see PositionIndex for the
+ * layout. The games are split into one contiguous range per thread and each
+ * thread replays its games into its own ExternalSort, adding a (hash, game)
+ * record for every distinct position a game reaches. The sorted runs of all
+ * threads are then merged in one pass, which brings every game for a
+ * position together in game order so the entry and its postings are written
+ * as they stream past.
+ *
+ * Usage: java core.PositionIndexBuilder database index [--threads N] [--buffer records]
+ */
+public class PositionIndexBuilder {
+
+    /**
+     * Builds an index
+     * @param database games to index
+     * @param file path of the index file to write
+     * @param threads number of threads replaying games
+     * @param bufferRecords records each thread holds on the heap before writing a sorted run
+     * @return number of distinct positions written
+     */
+    public static long build(GameDatabase database, Path file, int threads, int bufferRecords) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        List<ExternalSort> sorters = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            sorters.add(new ExternalSort(directory, bufferRecords));
+        }
+        Path postingFile = Files.createTempFile(directory, "postings", ".bin");
+        try {
+            replayAll(database, sorters);
+            return write(sorters, file, postingFile);
+        } finally {
+            for (ExternalSort s : sorters) {
+                s.close();
+            }
+            Files.deleteIfExists(postingFile);
+        }
+    }
+
+    /**
+     * Replays every game, one contiguous range per sorter, each range on its
+     * own thread of a pool sized to the number of sorters
+     * @param database games to index
+     * @param sorters sorter receiving the records of each range
+     */
+    private static void replayAll(GameDatabase database, List<ExternalSort> sorters) throws IOException {
+        int threads = sorters.size(), games = database.size();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = (int) ((long) games * t / threads), end = (int) ((long) games * (t + 1) / threads);
+                ExternalSort sorter = sorters.get(t);
+                tasks.add(pool.submit(() -> {
+                    replay(database, first, end, sorter);
+                    return null;
+                }));
+            }
+            for (ForkJoinTask<Void> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while replaying games");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            //The sorters are closed once this returns, so no range may still be writing to one
+            pool.shutdownNow();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Adds a record for every distinct position reached in a range of games
+     * @param database games to index
+     * @param first number of the first game
+     * @param end number after the last game
+     * @param sorter sorter receiving the records
+     */
+    private static void replay(GameDatabase database, int first, int end, ExternalSort sorter) throws IOException {
+        PdnGame game = new PdnGame();
+        Bitboard b = new Bitboard();
+        long[] hashes = new long[PdnGame.MAX_PLIES + 1];
+        for (int id = first; id < end; id++) {
+            database.read(id, game);
+            b.set(game.start);
+            hashes[0] = b.hash;
+            for (int i = 0; i < game.count; i++) {
+                b.make(game.moves[i]);
+                hashes[i + 1] = b.hash;
+            }
+            //A position repeated within a game is only counted once
+            int n = game.count + 1;
+            Arrays.sort(hashes, 0, n);
+            long value = ((long) id << 2) | code(game.result);
+            for (int i = 0; i < n; i++) {
+                if (i == 0 || hashes[i] != hashes[i - 1]) {
+                    sorter.add(hashes[i], value);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param result PdnGame.X_WINS, DRAWN, O_WINS or UNKNOWN
+     * @return 0 to 3, kept in the low bits of a record
+     */
+    private static int code(int result) {
+        switch (result) {
+            case PdnGame.X_WINS:
+                return 0;
+            case PdnGame.DRAWN:
+                return 1;
+            case PdnGame.O_WINS:
+                return 2;
+            default:
+                return 3;
+        }
+    }
+
+    /**
+     * Merges the sorted records into the index file. Entries are written
+     * straight after the header and postings to a temporary file that is
+     * appended once the number of entries is known.
+     * @param sorters sorters holding the records
+     * @param file path of the index file
+     * @param postingFile temporary file for the postings
+     * @return number of entries written
+     */
+    private static long write(List<ExternalSort> sorters, Path file, Path postingFile) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             FileChannel postingOut = FileChannel.open(postingFile, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            ByteBuffer postingBuffer = ByteBuffer.allocateDirect(1 << 16);
+            out.position(PositionIndex.HEADER);
+            //Hash, first posting and the number of games with each result code for the current position
+            long[] current = new long[6];
+            long[] totals = {0, 0};
+            ExternalSort.Sink flush = (key, value) -> {
+                long games = current[2] + current[3] + current[4] + current[5];
+                if (games > 0) {
+                    if (buffer.remaining() < PositionIndex.ENTRY) {
+                        drain(out, buffer);
+                    }
+                    buffer.putLong(current[0]).putLong(current[1]).putInt((int) games)
+                            .putInt((int) current[2]).putInt((int) current[3]).putInt((int) current[4]);
+                    totals[0]++;
+                }
+                current[0] = key;
+                current[1] = totals[1];
+                Arrays.fill(current, 2, 6, 0);
+            };
+            ExternalSort.mergeAll(sorters, (key, value) -> {
+                //The very first record starts a position even if its hash happens to be 0
+                if (key != current[0] || current[1] == totals[1]) {
+                    flush.accept(key, value);
+                }
+                current[2 + (int) (value & 3)]++;
+                if (postingBuffer.remaining() < 4) {
+                    drain(postingOut, postingBuffer);
+                }
+                postingBuffer.putInt((int) (value >>> 2));
+                totals[1]++;
+            });
+            flush.accept(0, 0);
+            drain(out, buffer);
+            drain(postingOut, postingBuffer);
+            long length = postingOut.size();
+            for (long done = 0; done < length; ) {
+                done += postingOut.transferTo(done, length - done, out);
+            }
+            buffer.putInt(PositionIndex.MAGIC).putInt(PositionIndex.VERSION).putLong(totals[0]).putLong(totals[1]);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer, buffer.position());
+            }
+            return totals[0];
+        }
+    }
+
+    /**
+     * Writes the contents of a buffer and empties it
+     * @param out channel to write to
+     * @param buffer buffer holding data
+     */
+    private static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Builds the position index of a game database
+     * @param args database file, index file and options
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: java core.PositionIndexBuilder database index [--threads N] [--buffer records]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors(), buffer = 1 << 22;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "--buffer": buffer = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        try (GameDatabase database = GameDatabase.open(Paths.get(args[0]))) {
+            long positions = build(database, Paths.get(args[1]), threads, buffer);
+            System.out.println("Indexed " + positions + " positions from " + database.size() + " games to "
+                    + args[1] + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Class containing the rules of checkers with no console input or output
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+/**
+ * Rules checks moves entered by a player and decides when a game has
+ * ended. Nothing here reads input or prints: moves are given as the full
+ * list of squares visited, so a multi-jump never has to ask which way to
+ * continue, and every answer is a status value the caller can show however
+ * it likes.
+ */
+public class Rules {
+
+    //Longest path a move can take, start square and one landing square per capture
+    public static final int MAX_PATH = 16;
+
+    /**
+     * Result of checking a move entered by a player
+     */
+    public enum MoveStatus {
+        OK(""),
+        MALFORMED("Enter a move as squares separated by '-', e.g. 3a-4b or 3a-5c-7e."),
+        OFF_BOARD("Invalid move. Select a spot on the game board."),
+        NOT_YOUR_PIECE("You have not selected a valid piece."),
+        JUMP_REQUIRED("A jump is available and must be taken."),
+        INCOMPLETE_JUMP("The jump can continue, enter every square of the jump."),
+        AMBIGUOUS("More than one jump ends there, enter every square of the jump."),
+        GAME_OVER("The game is over."),
+        ILLEGAL("You have not entered a valid move.");
+
+        private final String message;
+
+        MoveStatus(String message) {
+            this.message = message;
+        }
+
+        /**
+         * @return text explaining the status to a player
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * State of a game
+     */
+    public enum GameStatus {
+        IN_PROGRESS,
+        X_WINS,
+        O_WINS;
+
+        /**
+         * @param side the side that has won
+         * @return X_WINS or O_WINS
+         */
+        public static GameStatus win(int side) {
+            return side == Bitboard.X ? X_WINS : O_WINS;
+        }
+    }
+
+    /**
+     * Reads a move into a list of squares, see MoveParser for the notations
+     * accepted. Squares off the board or on light squares are stored as -1.
+     * @param text move such as 3a-4b, 3a-5c-7e or 9x18
+     * @param path array of at least MAX_PATH entries to hold the squares
+     * @return number of squares read, or -1 if the text is not a move
+     */
+    public static int parsePath(CharSequence text, int[] path) {
+        return MoveParser.parse(text, path);
+    }
+
+    /**
+     * Finds the legal move described by a path
+     * @param b position, it is not changed
+     * @param path squares visited by the move
+     * @param length number of squares in the path
+     * @return the move, or Move.NONE if the path is not exactly one legal move
+     */
+    public static int find(Bitboard b, int[] path, int length) {
+        MoveValidator validator = MoveValidator.local();
+        validator.setPosition(b);
+        return validator.find(path, length);
+    }
+
+    /**
+     * Explains whether a path is a legal move
+     * @param b position, it is not changed
+     * @param path squares visited by the move
+     * @param length number of squares in the path
+     * @return OK or the reason the move cannot be played
+     */
+    public static MoveStatus validate(Bitboard b, int[] path, int length) {
+        MoveValidator validator = MoveValidator.local();
+        validator.setPosition(b);
+        validator.find(path, length);
+        return validator.getStatus();
+    }
+
+    /**
+     * Decides whether a game has ended. The side to move loses when it has
+     * no pieces or no legal move.
+     * @param b position, it is not changed
+     * @return IN_PROGRESS, or the side that has won
+     */
+    public static GameStatus status(Bitboard b) {
+        if (b.pieces[b.side] == 0 || !MoveGenerator.hasMove(b, b.side)) {
+            return GameStatus.win(b.side ^ 1);
+        }
+        return GameStatus.IN_PROGRESS;
+    }
+}
@@ -0,0 +1,487 @@
+/**
+ * Class containing the alpha-beta search used by the computer player
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+public class Search {
+
+    /**
+     * Told about each iteration of the main search as it completes. It is
+     * called on the searching thread, so it must be quick and must hand any
+     * work for a user interface over to that interface's own thread.
+     */
+    public interface Listener {
+        /**
+         * @param search search that completed an iteration, read its depth, score, move and line
+         */
+        void iterationDone(Search search);
+    }
+
+    //Scores are from the point of view of the side to move
+    public static final int INFINITY = 32000;
+    public static final int WIN = 30000;
+    public static final int MAX_PLY = 128;
+
+    //Scores beyond this are forced wins or losses, from the search or the tablebase
+    public static final int KNOWN_WIN = WIN - 1000;
+
+    //Board searched, moves are made and unmade on it in place
+    private final Bitboard board = new Bitboard();
+
+    //Table of positions already searched
+    private final TranspositionTable tt;
+
+    //Endgame tablebase or null if none is loaded
+    private Tablebase tablebase;
+
+    //Move buffers and principal variation table, one row per ply
+    private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+
+    //Moves made from the root to reach the current node
+    private final int[] line = new int[MAX_PLY];
+
+    //Results of the last search
+    private int bestMove;
+    private int bestScore;
+    private int depthReached;
+    private long nodes;
+    private long elapsed;
+    private final int[] bestPv = new int[MAX_PLY];
+    private int bestPvLength;
+
+    //Time control
+    private long startTime;
+    private long deadline;
+    private volatile boolean stopped;
+
+    //Counts for SearchStats, kept in plain fields as only this search's thread touches them
+    private long probes;
+    private long hits;
+    private long stores;
+    private long collisions;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long cutoffIndices;
+    private long generations;
+    private long timedGenerations;
+    private long generationNanos;
+
+    //One move generation in this many is timed, timing every one would cost more than it measures
+    private static final int TIMING_MASK = 255;
+
+    //Thread number when several searches share a table, 0 for the main search
+    private final int id;
+
+    //Told about each completed iteration, or null
+    private volatile Listener listener;
+
+    /**
+     * Creates a search with its own 16 MB transposition table
+     */
+    public Search() {
+        this(new TranspositionTable(16));
+    }
+
+    /**
+     * Creates a search using the given transposition table
+     * @param tt table of positions, may be shared with other searches
+     */
+    public Search(TranspositionTable tt) {
+        this(tt, 0);
+    }
+
+    /**
+     * Creates one of several searches sharing a transposition table
+     * @param tt table of positions shared with the other searches
+     * @param id thread number, 0 for the main search and above 0 for helpers
+     */
+    public Search(TranspositionTable tt, int id) {
+        this.tt = tt;
+        this.id = id;
+    }
+
+    /**
+     * Sets the endgame tablebase probed for positions with few pieces
+     * @param tablebase tablebase to probe or null to search without one
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Sets the listener told about each completed iteration
+     * @param listener listener or null for none
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Searches a position with iterative deepening until the depth or time limit is hit
+     * @param position position to search, it is not changed
+     * @param maxDepth deepest iteration to start
+     * @param millis time limit in milliseconds
+     * @return best move found or Move.NONE if the side to move has no moves
+     */
+    public int search(Bitboard position, int maxDepth, long millis) {
+        tt.newSearch();
+        start(position, millis);
+        return iterate(maxDepth);
+    }
+
+    /**
+     * Resets the search for a new position without starting it
+     * @param position position to search, it is not changed
+     * @param millis time limit in milliseconds
+     */
+    void start(Bitboard position, long millis) {
+        board.set(position);
+        board.rehash();
+        startTime = System.nanoTime();
+        deadline = startTime + millis * 1000000L;
+        stopped = false;
+        nodes = 0;
+        probes = 0;
+        hits = 0;
+        stores = 0;
+        collisions = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        cutoffIndices = 0;
+        generations = 0;
+        timedGenerations = 0;
+        generationNanos = 0;
+        bestMove = Move.NONE;
+        bestScore = 0;
+        bestPvLength = 0;
+        depthReached = 0;
+    }
+
+    /**
+     * Runs iterative deepening on the position given to start
+     * @param maxDepth deepest iteration to start
+     * @return best move found or Move.NONE if the side to move has no moves
+     */
+    int iterate(int maxDepth) {
+        //Every other helper thread starts one ply deeper so the threads spread over two depths
+        for (int depth = 1 + (id & 1); depth <= maxDepth && depth < MAX_PLY; depth++) {
+            Events.SearchIteration event = new Events.SearchIteration();
+            event.begin();
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+            if (!stopped) {
+                bestScore = score;
+                depthReached = depth;
+                bestPvLength = pvLength[0];
+                System.arraycopy(pv[0], 0, bestPv, 0, bestPvLength);
+                bestMove = bestPvLength > 0 ? bestPv[0] : Move.NONE;
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.depth = depth;
+                event.nodes = nodes;
+                event.elapsed = System.nanoTime() - startTime;
+                event.completed = !stopped;
+                //An aborted iteration has no score, and getPv still holds the previous depth's line
+                if (event.completed) {
+                    event.score = score;
+                    event.pv = getPv();
+                }
+                event.thread = id;
+                event.commit();
+            }
+            if (stopped) {
+                break;
+            }
+            Listener l = listener;
+            if (l != null) {
+                l.iterationDone(this);
+            }
+            //A forced win or loss has been found, searching deeper will not change it
+            if (Math.abs(score) > KNOWN_WIN) {
+                break;
+            }
+        }
+        //Out of time before the first iteration finished, play any legal move
+        if (bestMove == Move.NONE && MoveGenerator.generate(board, moves[0]) > 0) {
+            bestMove = moves[0][0];
+        }
+        elapsed = System.nanoTime() - startTime;
+        SearchStats.GLOBAL.addSearch(nodes, elapsed, probes, hits, stores, collisions, cutoffs, firstMoveCutoffs,
+                cutoffIndices, generations, timedGenerations, generationNanos);
+        return bestMove;
+    }
+
+    /**
+     * Stops a running search, the last completed iteration is kept
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Negamax search with alpha-beta pruning
+     * @param depth remaining depth
+     * @param ply distance from the root
+     * @param alpha lower bound
+     * @param beta upper bound
+     * @return score of the position for the side to move
+     */
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if ((++nodes & 1023) == 0 && System.nanoTime() > deadline) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        //Endgames with few enough pieces are looked up instead of searched
+        if (tablebase != null && ply > 0
+                && Integer.bitCount(board.pieces[Bitboard.X] | board.pieces[Bitboard.O]) <= tablebase.getPieces()) {
+            int value = tablebase.probe(board);
+            if (value != Tablebase.UNKNOWN) {
+                if (Tablebase.isWin(value)) {
+                    return WIN - ply - Tablebase.distance(value);
+                } else if (Tablebase.isLoss(value)) {
+                    return -WIN + ply + Tablebase.distance(value);
+                }
+                return 0;
+            }
+        }
+
+        //Use the stored result of this position if it was searched deeply enough
+        long key = board.hash;
+        long entry = tt.probe(key);
+        probes++;
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hits++;
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] list = moves[ply];
+        int n;
+        generations++;
+        if ((nodes & TIMING_MASK) == 0) {
+            long t = System.nanoTime();
+            n = MoveGenerator.generate(board, list);
+            generationNanos += System.nanoTime() - t;
+            timedGenerations++;
+        } else {
+            n = MoveGenerator.generate(board, list);
+        }
+        if (n == 0) {
+            return -WIN + ply;
+        }
+        //Jumps are forced, so keep searching until the position is quiet
+        if ((depth <= 0 && !Move.isJump(list[0])) || ply >= MAX_PLY - 1) {
+            return evaluate();
+        }
+        if (!orderPvMove(list, n, ply)) {
+            toFront(list, n, hashMove);
+        }
+        //Helpers try the other root moves in a different order than the main search
+        if (ply == 0 && id > 0 && n > 2) {
+            rotate(list, 1, n, id);
+        }
+
+        int originalAlpha = alpha;
+        int best = Move.NONE;
+        for (int i = 0; i < n; i++) {
+            int move = list[i];
+            line[ply] = move;
+            int undo = board.make(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            board.unmake(move, undo);
+            if (stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                best = move;
+                pv[ply][0] = move;
+                System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+                pvLength[ply] = pvLength[ply + 1] + 1;
+                if (score >= beta) {
+                    cutoffs++;
+                    cutoffIndices += i;
+                    if (i == 0) {
+                        firstMoveCutoffs++;
+                    }
+                    break;
+                }
+            }
+        }
+        int bound = alpha <= originalAlpha ? TranspositionTable.UPPER
+                : alpha >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        stores++;
+        if (tt.store(key, best, toTable(alpha, ply), depth, bound)) {
+            collisions++;
+        }
+        return alpha;
+    }
+
+    /**
+     * Converts a win or loss score to be relative to the stored position
+     * @param score score relative to the root
+     * @param ply distance from the root
+     * @return score to store in the table
+     */
+    private static int toTable(int score, int ply) {
+        if (score > KNOWN_WIN) {
+            return score + ply;
+        } else if (score < -KNOWN_WIN) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Converts a stored win or loss score back to be relative to the root
+     * @param score score read from the table
+     * @param ply distance from the root
+     * @return score relative to the root
+     */
+    private static int fromTable(int score, int ply) {
+        if (score > KNOWN_WIN) {
+            return score - ply;
+        } else if (score < -KNOWN_WIN) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Moves the move from the previous iteration's principal variation to the front
+     * @param list moves at this ply
+     * @param n number of moves
+     * @param ply distance from the root
+     * @return true if this node is on the previous principal variation
+     */
+    private boolean orderPvMove(int[] list, int n, int ply) {
+        if (ply >= bestPvLength) {
+            return false;
+        }
+        //Only follow the old variation while every move so far matches it
+        for (int i = 0; i < ply; i++) {
+            if (line[i] != bestPv[i]) {
+                return false;
+            }
+        }
+        return toFront(list, n, bestPv[ply]);
+    }
+
+    /**
+     * Moves a move to the front of the list if it is present
+     * @param list moves at this ply
+     * @param n number of moves
+     * @param move move to search first
+     * @return true if the move was found
+     */
+    private static boolean toFront(int[] list, int n, int move) {
+        if (move == Move.NONE) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (list[i] == move) {
+                list[i] = list[0];
+                list[0] = move;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rotates part of a move list to the left
+     * @param list moves at this ply
+     * @param first index of the first move to rotate
+     * @param n number of moves
+     * @param by number of places to rotate
+     */
+    private static void rotate(int[] list, int first, int n, int by) {
+        by %= n - first;
+        for (int r = 0; r < by; r++) {
+            int m = list[first];
+            System.arraycopy(list, first + 1, list, first, n - first - 1);
+            list[n - 1] = m;
+        }
+    }
+
+    /**
+     * Scores a quiet position, see Evaluation
+     * @return score of the position for the side to move
+     */
+    private int evaluate() {
+        return Evaluation.evaluate(board);
+    }
+
+    /**
+     * @return best move of the last completed iteration
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return score of the last completed iteration for the side to move
+     */
+    public int getScore() {
+        return bestScore;
+    }
+
+    /**
+     * @return depth of the last completed iteration
+     */
+    public int getDepth() {
+        return depthReached;
+    }
+
+    /**
+     * @return nodes visited by the last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return time taken by the last search in milliseconds
+     */
+    public long getMillis() {
+        return elapsed / 1000000L;
+    }
+
+    /**
+     * @return nodes visited per second by the last search
+     */
+    public long getNodesPerSecond() {
+        return elapsed == 0 ? 0 : nodes * 1000000000L / elapsed;
+    }
+
+    /**
+     * @return principal variation of the last completed iteration in console notation
+     */
+    public String getPv() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < bestPvLength; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(Move.toString(bestPv[i]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,346 @@
+/**
+ * Class containing the statistics gathered from every search
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Totals of what every search in the process has done. A search counts
+ * into plain fields of its own, which only its thread touches, and adds
+ * them here once when it finishes, so the hot path pays for an increment
+ * of a local field and nothing else. The totals are LongAdders, so
+ * searches finishing together on many threads do not contend on them.
+ *
+ * The totals are published as the MBean checkers:type=SearchStats once
+ * register is called, and snapshot copies them for a program to log; the
+ * difference of two snapshots gives the rates over the time between them.
+ */
+public class SearchStats implements SearchStatsMBean {
+
+    //Name the statistics are published under
+    public static final String NAME = "checkers:type=SearchStats";
+
+    //Statistics of every search in the process
+    public static final SearchStats GLOBAL = new SearchStats();
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder cutoffs = new LongAdder();
+    private final LongAdder firstMoveCutoffs = new LongAdder();
+    private final LongAdder cutoffIndices = new LongAdder();
+    private final LongAdder generations = new LongAdder();
+    private final LongAdder timedGenerations = new LongAdder();
+    private final LongAdder generationNanos = new LongAdder();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder gamePlies = new LongAdder();
+
+    private boolean registered;
+
+    //Runs the periodic reports, its thread starts with the first report
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "search statistics");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Totals copied at one moment, with the rates worked out from them
+     */
+    public static class Snapshot {
+        //System.nanoTime when taken, or the length of the period for a difference
+        public final long time;
+        public final long searches;
+        public final long nodes;
+        public final long searchNanos;
+        public final long probes;
+        public final long hits;
+        public final long stores;
+        public final long collisions;
+        public final long cutoffs;
+        public final long firstMoveCutoffs;
+        public final long cutoffIndices;
+        public final long generations;
+        public final long timedGenerations;
+        public final long generationNanos;
+        public final long games;
+        public final long gamePlies;
+
+        Snapshot(long time, long[] v) {
+            this.time = time;
+            searches = v[0];
+            nodes = v[1];
+            searchNanos = v[2];
+            probes = v[3];
+            hits = v[4];
+            stores = v[5];
+            collisions = v[6];
+            cutoffs = v[7];
+            firstMoveCutoffs = v[8];
+            cutoffIndices = v[9];
+            generations = v[10];
+            timedGenerations = v[11];
+            generationNanos = v[12];
+            games = v[13];
+            gamePlies = v[14];
+        }
+
+        /**
+         * @return every total in the order the constructor takes them
+         */
+        private long[] values() {
+            return new long[] {searches, nodes, searchNanos, probes, hits, stores, collisions, cutoffs,
+                    firstMoveCutoffs, cutoffIndices, generations, timedGenerations, generationNanos,
+                    games, gamePlies};
+        }
+
+        /**
+         * @param earlier snapshot taken before this one
+         * @return what happened between the two snapshots
+         */
+        public Snapshot since(Snapshot earlier) {
+            long[] now = values(), then = earlier.values();
+            for (int i = 0; i < now.length; i++) {
+                now[i] -= then[i];
+            }
+            return new Snapshot(time - earlier.time, now);
+        }
+
+        /**
+         * @return nodes per second of search time, summed over threads
+         */
+        public long nodesPerSecond() {
+            return searchNanos == 0 ? 0 : nodes * 1000000000L / searchNanos;
+        }
+
+        /**
+         * @return share of table probes that found the position
+         */
+        public double hitRate() {
+            return ratio(hits, probes);
+        }
+
+        /**
+         * @return share of table stores that replaced another position
+         */
+        public double collisionRate() {
+            return ratio(collisions, stores);
+        }
+
+        /**
+         * @return share of beta cutoffs made by the first move searched
+         */
+        public double firstMoveCutoffRate() {
+            return ratio(firstMoveCutoffs, cutoffs);
+        }
+
+        /**
+         * @return mean index in the move list of the move causing a cutoff, 0 for the first
+         */
+        public double averageCutoffIndex() {
+            return ratio(cutoffIndices, cutoffs);
+        }
+
+        /**
+         * @return mean time to generate the moves of one node, from a sample of the calls
+         */
+        public double averageGenerationNanos() {
+            return ratio(generationNanos, timedGenerations);
+        }
+
+        /**
+         * @return mean number of plies of the games finished
+         */
+        public double averageGameLength() {
+            return ratio(gamePlies, games);
+        }
+
+        private static double ratio(long a, long b) {
+            return b == 0 ? 0 : (double) a / b;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d searches, %d nodes, %d nodes/s, table hits %.1f%% collisions %.1f%%,"
+                    + " %d cutoffs %.1f%% first move avg index %.2f, movegen %.0f ns, %d games avg %.1f plies",
+                    searches, nodes, nodesPerSecond(), 100 * hitRate(), 100 * collisionRate(), cutoffs,
+                    100 * firstMoveCutoffRate(), averageCutoffIndex(), averageGenerationNanos(), games,
+                    averageGameLength());
+        }
+    }
+
+    /**
+     * Adds the counts of one finished search
+     * @param nodes nodes visited
+     * @param nanos time the search took
+     * @param probes transposition table probes
+     * @param hits probes that found the position
+     * @param stores entries stored
+     * @param collisions stores that replaced another position's entry
+     * @param cutoffs beta cutoffs
+     * @param firstMoveCutoffs cutoffs made by the first move searched
+     * @param cutoffIndices sum of the list index of each cutoff move
+     * @param generations nodes whose moves were generated
+     * @param timedGenerations generations that were timed
+     * @param generationNanos time taken by the timed generations
+     */
+    public void addSearch(long nodes, long nanos, long probes, long hits, long stores, long collisions,
+                          long cutoffs, long firstMoveCutoffs, long cutoffIndices,
+                          long generations, long timedGenerations, long generationNanos) {
+        searches.increment();
+        this.nodes.add(nodes);
+        searchNanos.add(nanos);
+        this.probes.add(probes);
+        this.hits.add(hits);
+        this.stores.add(stores);
+        this.collisions.add(collisions);
+        this.cutoffs.add(cutoffs);
+        this.firstMoveCutoffs.add(firstMoveCutoffs);
+        this.cutoffIndices.add(cutoffIndices);
+        this.generations.add(generations);
+        this.timedGenerations.add(timedGenerations);
+        this.generationNanos.add(generationNanos);
+    }
+
+    /**
+     * Adds a finished game
+     * @param plies number of plies played
+     */
+    public void addGame(int plies) {
+        games.increment();
+        gamePlies.add(plies);
+    }
+
+    /**
+     * @return the totals at this moment
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(System.nanoTime(), new long[] {searches.sum(), nodes.sum(), searchNanos.sum(),
+                probes.sum(), hits.sum(), stores.sum(), collisions.sum(), cutoffs.sum(), firstMoveCutoffs.sum(),
+                cutoffIndices.sum(), generations.sum(), timedGenerations.sum(), generationNanos.sum(),
+                games.sum(), gamePlies.sum()});
+    }
+
+    /**
+     * Hands what happened in each period to a consumer, on a daemon thread
+     * @param millis length of a period in milliseconds
+     * @param consumer told about each period, see Snapshot.since
+     * @return handle that stops the reports when cancelled
+     */
+    public ScheduledFuture<?> report(long millis, Consumer<Snapshot> consumer) {
+        Snapshot[] last = {snapshot()};
+        return TIMER.scheduleAtFixedRate(() -> {
+            Snapshot now = snapshot();
+            consumer.accept(now.since(last[0]));
+            last[0] = now;
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes the global statistics on the platform MBean server, once
+     */
+    public static synchronized void register() {
+        if (GLOBAL.registered) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(GLOBAL, new ObjectName(NAME));
+            GLOBAL.registered = true;
+        } catch (JMException e) {
+            System.out.println("Could not publish search statistics: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder a : new LongAdder[] {searches, nodes, searchNanos, probes, hits, stores, collisions, cutoffs,
+                firstMoveCutoffs, cutoffIndices, generations, timedGenerations, generationNanos, games, gamePlies}) {
+            a.reset();
+        }
+    }
+
+    @Override
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getNodesPerSecond() {
+        return snapshot().nodesPerSecond();
+    }
+
+    @Override
+    public double getTableHitRate() {
+        return snapshot().hitRate();
+    }
+
+    @Override
+    public long getTableStores() {
+        return stores.sum();
+    }
+
+    @Override
+    public double getTableCollisionRate() {
+        return snapshot().collisionRate();
+    }
+
+    @Override
+    public long getBetaCutoffs() {
+        return cutoffs.sum();
+    }
+
+    @Override
+    public double getFirstMoveCutoffRate() {
+        return snapshot().firstMoveCutoffRate();
+    }
+
+    @Override
+    public double getAverageCutoffIndex() {
+        return snapshot().averageCutoffIndex();
+    }
+
+    @Override
+    public long getMoveGenerations() {
+        return generations.sum();
+    }
+
+    @Override
+    public double getAverageGenerationNanos() {
+        return snapshot().averageGenerationNanos();
+    }
+
+    @Override
+    public long getGames() {
+        return games.sum();
+    }
+
+    @Override
+    public double getAverageGameLength() {
+        return snapshot().averageGameLength();
+    }
+
+    @Override
+    public String getSummary() {
+        return snapshot().toString();
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Class containing the management interface of the search statistics
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+/**
+ * Attributes and operations SearchStats publishes over JMX, totals since
+ * the process started or the last reset
+ */
+public interface SearchStatsMBean {
+
+    long getSearches();
+
+    long getNodes();
+
+    long getNodesPerSecond();
+
+    double getTableHitRate();
+
+    long getTableStores();
+
+    double getTableCollisionRate();
+
+    long getBetaCutoffs();
+
+    double getFirstMoveCutoffRate();
+
+    double getAverageCutoffIndex();
+
+    long getMoveGenerations();
+
+    double getAverageGenerationNanos();
+
+    long getGames();
+
+    double getAverageGameLength();
+
+    String getSummary();
+
+    void reset();
+}
@@ -0,0 +1,296 @@
+/**
+ * Class containing the endgame tablebase reader
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An endgame tablebase holds one byte for every position with up to a
+ * fixed number of pieces. Positions are stored with x to move; a position
+ * with o to move is flipped first. The positions are split into slices by
+ * the number of men and kings of each side, and each slice is mapped
+ * straight from the file so probes read the page cache with no heap copy
+ * and opening the file costs nothing beyond reading the header.
+ *
+ * File layout: int magic, int version, int max pieces, int slice count,
+ * then per slice an int signature, a long offset and a long size, then
+ * the slice data.
+ *
+ * Values: 0 is a draw, a value v above 0 is a win in v - 1 plies, a value
+ * v below 0 is a loss in -v - 1 plies and INVALID marks an index that is
+ * not a real position. Distances are capped at MAX_DISTANCE.
+ */
+public class Tablebase implements Closeable {
+
+    public static final int MAGIC = 0x434B5442;
+    public static final int VERSION = 1;
+
+    public static final byte DRAW = 0;
+    public static final byte INVALID = -128;
+    public static final int MAX_DISTANCE = 126;
+
+    //Returned by probe when the position is not in the tablebase
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    //Men of x can never stand on row 8 and men of o never on row 1
+    static final int MAN_SQUARES = 28;
+
+    //Binomial coefficients used to number sets of squares
+    static final int[][] CHOOSE = new int[Bitboard.SQUARES + 1][Bitboard.SQUARES + 1];
+
+    static {
+        for (int n = 0; n <= Bitboard.SQUARES; n++) {
+            CHOOSE[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + (k <= n - 1 ? CHOOSE[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private final FileChannel channel;
+    private final int maxPieces;
+    private final ByteBuffer[] slices = new ByteBuffer[1 << 16];
+
+    /**
+     * Maps a tablebase file
+     * @param channel open channel of the file
+     */
+    private Tablebase(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(16);
+        readFully(channel, header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a checkers tablebase file");
+        }
+        maxPieces = header.getInt();
+        int count = header.getInt();
+        ByteBuffer table = ByteBuffer.allocate(count * 20);
+        readFully(channel, table, 16);
+        table.flip();
+        for (int i = 0; i < count; i++) {
+            int signature = table.getInt();
+            long offset = table.getLong();
+            long size = table.getLong();
+            MappedByteBuffer slice = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            slices[signature] = slice;
+        }
+    }
+
+    /**
+     * Opens a tablebase written by TablebaseGenerator
+     * @param file path of the tablebase file
+     * @return tablebase ready to probe
+     * @throws IOException if the file cannot be read or is not a tablebase
+     */
+    public static Tablebase open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new Tablebase(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads until a buffer is full
+     * @param channel channel to read from
+     * @param buffer buffer to fill
+     * @param position file position to start reading at
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Tablebase file is truncated");
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * @return the largest number of pieces covered by the tablebase
+     */
+    public int getPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * Looks up a position
+     * @param b position to look up, it is not changed
+     * @return stored value from the point of view of the side to move, or UNKNOWN
+     */
+    public int probe(Bitboard b) {
+        int own = b.pieces[b.side];
+        int opp = b.pieces[b.side ^ 1];
+        if (Integer.bitCount(own | opp) > maxPieces || opp == 0) {
+            return UNKNOWN;
+        }
+        if (own == 0) {
+            return -1;
+        }
+        int x, o, kings;
+        if (b.side == Bitboard.X) {
+            x = own;
+            o = opp;
+            kings = b.kings;
+        } else {
+            x = Integer.reverse(own);
+            o = Integer.reverse(opp);
+            kings = Integer.reverse(b.kings);
+        }
+        int signature = signature(x, o, kings);
+        ByteBuffer slice = slices[signature];
+        if (slice == null) {
+            return UNKNOWN;
+        }
+        byte value = slice.get(index(x, o, kings, signature));
+        return value == INVALID ? UNKNOWN : value;
+    }
+
+    /**
+     * @param value value returned by probe
+     * @return true if the side to move wins
+     */
+    public static boolean isWin(int value) {
+        return value > 0 && value != UNKNOWN;
+    }
+
+    /**
+     * @param value value returned by probe
+     * @return true if the side to move loses
+     */
+    public static boolean isLoss(int value) {
+        return value < 0 && value != UNKNOWN;
+    }
+
+    /**
+     * @param value value returned by probe for a win or loss
+     * @return number of plies until the game ends with best play
+     */
+    public static int distance(int value) {
+        return Math.abs(value) - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Packs the number of men and kings of each side into a slice signature
+     * @param x pieces of the side to move
+     * @param o pieces of the other side
+     * @param kings kings of either side
+     * @return x men, x kings, o men and o kings in 4 bits each
+     */
+    static int signature(int x, int o, int kings) {
+        int xKings = Integer.bitCount(x & kings);
+        int oKings = Integer.bitCount(o & kings);
+        return (Integer.bitCount(x) - xKings) | (xKings << 4)
+                | ((Integer.bitCount(o) - oKings) << 8) | (oKings << 12);
+    }
+
+    /**
+     * @param signature slice signature
+     * @return number of indexes in the slice
+     */
+    static long sliceSize(int signature) {
+        return (long) CHOOSE[MAN_SQUARES][signature & 15] * CHOOSE[MAN_SQUARES][(signature >> 8) & 15]
+                * CHOOSE[Bitboard.SQUARES][(signature >> 4) & 15] * CHOOSE[Bitboard.SQUARES][(signature >> 12) & 15];
+    }
+
+    /**
+     * Numbers a position within its slice
+     * @param x pieces of the side to move
+     * @param o pieces of the other side
+     * @param kings kings of either side
+     * @param signature slice signature of the position
+     * @return index of the position in the slice
+     */
+    static int index(int x, int o, int kings, int signature) {
+        int xMen = signature & 15, xKings = (signature >> 4) & 15;
+        int oMen = (signature >> 8) & 15, oKings = (signature >> 12) & 15;
+        long index = rank(x & ~kings);
+        index = index * CHOOSE[MAN_SQUARES][oMen] + rank((o & ~kings) >>> 4);
+        index = index * CHOOSE[Bitboard.SQUARES][xKings] + rank(x & kings);
+        index = index * CHOOSE[Bitboard.SQUARES][oKings] + rank(o & kings);
+        return (int) index;
+    }
+
+    /**
+     * Rebuilds the position with a given index in a slice
+     * @param index index of the position in the slice
+     * @param signature slice signature
+     * @param b board to fill in, x to move
+     * @return false if the index does not describe a real position
+     */
+    static boolean unindex(long index, int signature, Bitboard b) {
+        int xMen = signature & 15, xKings = (signature >> 4) & 15;
+        int oMen = (signature >> 8) & 15, oKings = (signature >> 12) & 15;
+        long size = CHOOSE[Bitboard.SQUARES][oKings];
+        int ok = unrank(index % size, oKings);
+        index /= size;
+        size = CHOOSE[Bitboard.SQUARES][xKings];
+        int xk = unrank(index % size, xKings);
+        index /= size;
+        size = CHOOSE[MAN_SQUARES][oMen];
+        int om = unrank(index % size, oMen) << 4;
+        index /= size;
+        int xm = unrank(index, xMen);
+        if ((xm & om) != 0 || ((xm | om) & (xk | ok)) != 0 || (xk & ok) != 0) {
+            return false;
+        }
+        b.pieces[Bitboard.X] = xm | xk;
+        b.pieces[Bitboard.O] = om | ok;
+        b.kings = xk | ok;
+        b.side = Bitboard.X;
+        return true;
+    }
+
+    /**
+     * Numbers a set of squares in colexicographic order
+     * @param squares mask of squares
+     * @return rank of the set among sets of the same size
+     */
+    private static int rank(int squares) {
+        int rank = 0;
+        int k = 1;
+        while (squares != 0) {
+            int sq = Integer.numberOfTrailingZeros(squares);
+            squares &= squares - 1;
+            rank += CHOOSE[sq][k++];
+        }
+        return rank;
+    }
+
+    /**
+     * Rebuilds the set of squares with a given rank
+     * @param rank rank of the set
+     * @param k number of squares in the set
+     * @return mask of squares
+     */
+    private static int unrank(long rank, int k) {
+        int squares = 0;
+        int sq = Bitboard.SQUARES - 1;
+        for (; k > 0; k--) {
+            while (CHOOSE[sq][k] > rank) {
+                sq--;
+            }
+            squares |= 1 << sq;
+            rank -= CHOOSE[sq][k];
+            sq--;
+        }
+        return squares;
+    }
+}
@@ -0,0 +1,302 @@
+/**
+ * Class containing the endgame tablebase generator
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Solves every position with up to a given number of pieces by retrograde
+ * analysis, level by level: at level L a position is a win in L plies if a
+ * move reaches a loss in fewer than L plies, and a loss in L plies if every
+ * move reaches a win in fewer than L plies. Positions never resolved are
+ * draws.
+ *
+ * A slice and its colour-swapped mirror depend on each other and are solved
+ * together. Captures lead to fewer pieces and crowning leads to fewer men,
+ * so solving slices by piece count and then by number of men means every
+ * other slice a move can reach is already finished. Each level is a
+ * parallel pass over the slice; a position resolved in the current pass
+ * has distance L, which never satisfies "fewer than L", so the passes give
+ * the same result however the work is split across threads.
+ *
+ * Usage: java core.TablebaseGenerator pieces file [--threads N]
+ */
+public class TablebaseGenerator {
+
+    //Positions handled by one parallel task
+    private static final int CHUNK = 4096;
+
+    private final int maxPieces;
+    private final byte[][] slices = new byte[1 << 16][];
+    private final List<Integer> order = new ArrayList<>();
+    private int maxDistance;
+
+    /**
+     * Creates a generator
+     * @param maxPieces largest number of pieces to solve, at most 6
+     */
+    public TablebaseGenerator(int maxPieces) {
+        if (maxPieces < 2 || maxPieces > 6) {
+            throw new IllegalArgumentException("Tablebases can hold 2 to 6 pieces");
+        }
+        this.maxPieces = maxPieces;
+        for (int total = 2; total <= maxPieces; total++) {
+            for (int xMen = 0; xMen <= total; xMen++) {
+                for (int xKings = 0; xMen + xKings <= total; xKings++) {
+                    for (int oMen = 0; xMen + xKings + oMen <= total; oMen++) {
+                        int oKings = total - xMen - xKings - oMen;
+                        if (xMen + xKings > 0 && oMen + oKings > 0) {
+                            order.add(xMen | (xKings << 4) | (oMen << 8) | (oKings << 12));
+                        }
+                    }
+                }
+            }
+        }
+        order.sort(Comparator.comparingInt(TablebaseGenerator::pieces).thenComparingInt(TablebaseGenerator::men));
+    }
+
+    /**
+     * @param signature slice signature
+     * @return number of pieces in the slice
+     */
+    private static int pieces(int signature) {
+        return (signature & 15) + ((signature >> 4) & 15) + ((signature >> 8) & 15) + ((signature >> 12) & 15);
+    }
+
+    /**
+     * @param signature slice signature
+     * @return number of men in the slice
+     */
+    private static int men(int signature) {
+        return (signature & 15) + ((signature >> 8) & 15);
+    }
+
+    /**
+     * @param signature slice signature
+     * @return signature of the slice with the colours swapped
+     */
+    private static int mirror(int signature) {
+        return ((signature >> 8) & 0xFF) | ((signature & 0xFF) << 8);
+    }
+
+    /**
+     * Solves every slice
+     */
+    public void generate() {
+        for (int signature : order) {
+            if (slices[signature] != null) {
+                continue;
+            }
+            long start = System.nanoTime();
+            int other = mirror(signature);
+            int[] group = other == signature ? new int[] {signature} : new int[] {signature, other};
+            for (int s : group) {
+                slices[s] = new byte[(int) Tablebase.sliceSize(s)];
+            }
+            solve(group);
+            System.out.println(describe(group) + " solved in " + (System.nanoTime() - start) / 1000000 + " ms");
+        }
+    }
+
+    /**
+     * Solves a slice and its mirror level by level
+     * @param group signatures of the slices to solve
+     */
+    private void solve(int[] group) {
+        long changed = 1;
+        int level = 0;
+        //Keep going while positions resolve or a finished slice holds a longer result
+        while (changed > 0 || level <= maxDistance + 1) {
+            if (level > Tablebase.MAX_DISTANCE) {
+                System.out.println("Distance cap reached, remaining positions are stored as draws");
+                break;
+            }
+            changed = 0;
+            for (int signature : group) {
+                changed += pass(signature, level);
+            }
+            level++;
+        }
+        for (int signature : group) {
+            for (byte v : slices[signature]) {
+                if (v != Tablebase.DRAW && v != Tablebase.INVALID) {
+                    maxDistance = Math.max(maxDistance, Tablebase.distance(v));
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs one level over a slice in parallel
+     * @param signature slice to update
+     * @param level number of plies being resolved
+     * @return number of positions resolved
+     */
+    private long pass(int signature, int level) {
+        byte[] data = slices[signature];
+        int chunks = (data.length + CHUNK - 1) / CHUNK;
+        return IntStream.range(0, chunks).parallel().mapToLong(chunk -> {
+            Bitboard b = new Bitboard();
+            Bitboard child = new Bitboard();
+            int[] list = new int[MoveGenerator.MAX_MOVES];
+            long resolved = 0;
+            int end = Math.min(data.length, (chunk + 1) * CHUNK);
+            for (int i = chunk * CHUNK; i < end; i++) {
+                if (data[i] != Tablebase.DRAW) {
+                    continue;
+                }
+                if (!Tablebase.unindex(i, signature, b)) {
+                    if (level == 0) {
+                        data[i] = Tablebase.INVALID;
+                    }
+                    continue;
+                }
+                byte v = resolve(b, child, list, level);
+                if (v != Tablebase.DRAW) {
+                    data[i] = v;
+                    resolved++;
+                }
+            }
+            return resolved;
+        }).sum();
+    }
+
+    /**
+     * Tries to resolve one position at a level
+     * @param b position with x to move
+     * @param child scratch board
+     * @param list scratch move buffer
+     * @param level number of plies being resolved
+     * @return new value or DRAW if the position stays unresolved
+     */
+    private byte resolve(Bitboard b, Bitboard child, int[] list, int level) {
+        int n = MoveGenerator.generate(b, list);
+        if (n == 0) {
+            return level == 0 ? (byte) -1 : Tablebase.DRAW;
+        }
+        if (level == 0) {
+            return Tablebase.DRAW;
+        }
+        boolean allWins = true;
+        for (int i = 0; i < n; i++) {
+            child.set(b);
+            child.make(list[i]);
+            byte v = lookup(child);
+            if (v < 0 && Tablebase.distance(v) < level) {
+                return (byte) (level + 1);
+            }
+            if (v <= 0 || Tablebase.distance(v) >= level) {
+                allWins = false;
+            }
+        }
+        return allWins ? (byte) -(level + 1) : Tablebase.DRAW;
+    }
+
+    /**
+     * Reads the current value of a position
+     * @param b position with o to move, it is flipped in place
+     * @return value from the point of view of the side to move
+     */
+    private byte lookup(Bitboard b) {
+        if (b.pieces[Bitboard.O] == 0) {
+            return -1;
+        }
+        int x = Integer.reverse(b.pieces[Bitboard.O]);
+        int o = Integer.reverse(b.pieces[Bitboard.X]);
+        int kings = Integer.reverse(b.kings);
+        int signature = Tablebase.signature(x, o, kings);
+        return slices[signature][Tablebase.index(x, o, kings, signature)];
+    }
+
+    /**
+     * Summarises the results of a group of slices
+     * @param group signatures of the slices
+     * @return counts of wins, losses and draws
+     */
+    private String describe(int[] group) {
+        StringBuilder sb = new StringBuilder();
+        for (int signature : group) {
+            long wins = 0, losses = 0, draws = 0;
+            for (byte v : slices[signature]) {
+                if (v == Tablebase.DRAW) {
+                    draws++;
+                } else if (v != Tablebase.INVALID) {
+                    if (v > 0) {
+                        wins++;
+                    } else {
+                        losses++;
+                    }
+                }
+            }
+            sb.append(String.format("%dx%dX-%do%dO: %d wins %d losses %d draws  ",
+                    signature & 15, (signature >> 4) & 15, (signature >> 8) & 15, (signature >> 12) & 15,
+                    wins, losses, draws));
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Writes the solved slices in the format read by Tablebase
+     * @param file path to write
+     */
+    public void write(Path file) throws IOException {
+        try (OutputStream os = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeInt(Tablebase.VERSION);
+            out.writeInt(maxPieces);
+            out.writeInt(order.size());
+            long offset = 16 + 20L * order.size();
+            for (int signature : order) {
+                out.writeInt(signature);
+                out.writeLong(offset);
+                out.writeLong(slices[signature].length);
+                offset += slices[signature].length;
+            }
+            for (int signature : order) {
+                out.write(slices[signature]);
+            }
+        }
+    }
+
+    /**
+     * Builds a tablebase file from the command line
+     * @param args number of pieces, output file and optional --threads N
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: java core.TablebaseGenerator pieces file [--threads N]");
+            return;
+        }
+        int pieces = Integer.parseInt(args[0]);
+        Path file = Paths.get(args[1]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args.length >= 4 && args[2].equals("--threads")) {
+            threads = Integer.parseInt(args[3]);
+        }
+        TablebaseGenerator generator = new TablebaseGenerator(pieces);
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(generator::generate).get();
+        } finally {
+            pool.shutdown();
+        }
+        generator.write(file);
+        System.out.println("Wrote " + file + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+}
@@ -0,0 +1,340 @@
+/**
+ * Class containing the engine against engine tournament runner
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Plays a match between two engine configurations without any console or
+ * window. Each game runs on its own thread with its own board and its own
+ * searches, so games never share state. Threads are virtual when the JVM
+ * supports them, which lets a match start every game at once while a
+ * semaphore keeps only as many searching as there are processors.
+ *
+ * Openings are made of random legal moves from a Random seeded with the
+ * match seed and the opening number, and each opening is played twice
+ * with the engines swapping sides, so a match is reproducible and neither
+ * engine gains from a lopsided opening. Searches limited by depth rather
+ * than time play the same games on every run. Finished games are written
+ * to a PDN file as they end, and the result is reported as an Elo
+ * difference with a 95% confidence interval.
+ *
+ * Usage: java core.Tournament first second [--openings N] [--plies P]
+ * [--seed S] [--concurrency C] [--max-plies M] [--out file]
+ * where an engine is written depth:millis or depth:millis:hashMB
+ */
+public class Tournament {
+
+    /**
+     * Settings of one engine in a match
+     */
+    public static class Engine {
+        public final String name;
+        public final int depth;
+        public final long millis;
+        public final int hashMegabytes;
+
+        /**
+         * @param name name written to the PDN tags
+         * @param depth deepest iteration searched per move
+         * @param millis time limit per move in milliseconds
+         * @param hashMegabytes size of the transposition table of each game
+         */
+        public Engine(String name, int depth, long millis, int hashMegabytes) {
+            this.name = name;
+            this.depth = depth;
+            this.millis = millis;
+            this.hashMegabytes = hashMegabytes;
+        }
+
+        /**
+         * Reads engine settings written as depth:millis or depth:millis:hashMB
+         * @param spec settings text
+         * @return the engine
+         * @throws IllegalArgumentException if the text cannot be read
+         */
+        public static Engine parse(String spec) {
+            String[] parts = spec.split(":");
+            try {
+                int depth = Integer.parseInt(parts[0]);
+                long millis = parts.length > 1 ? Long.parseLong(parts[1]) : 60000;
+                int hash = parts.length > 2 ? Integer.parseInt(parts[2]) : 4;
+                return new Engine("depth " + depth + ", " + millis + " ms", depth, millis, hash);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid engine " + spec);
+            }
+        }
+    }
+
+    private final Engine first;
+    private final Engine second;
+    private final int openings;
+    private final int openingPlies;
+    private final long seed;
+    private final int maxPlies;
+    private final Semaphore running;
+
+    //Results from the point of view of the first engine
+    private int wins;
+    private int draws;
+    private int losses;
+
+    /**
+     * Creates a match
+     * @param first engine whose Elo difference is reported
+     * @param second engine it is measured against
+     * @param openings number of openings, each is played twice
+     * @param openingPlies number of random moves in each opening
+     * @param seed seed for the openings
+     * @param maxPlies games still running after this many plies are drawn
+     * @param concurrency number of games searching at the same time
+     */
+    public Tournament(Engine first, Engine second, int openings, int openingPlies, long seed,
+                      int maxPlies, int concurrency) {
+        this.first = first;
+        this.second = second;
+        this.openings = openings;
+        this.openingPlies = openingPlies;
+        this.seed = seed;
+        this.maxPlies = Math.min(maxPlies, PdnGame.MAX_PLIES);
+        this.running = new Semaphore(concurrency);
+    }
+
+    /**
+     * Creates an executor starting one virtual thread per game, or one
+     * platform thread per game on a JVM without virtual threads
+     * @return executor for the games
+     */
+    static ExecutorService newGameExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Plays every game of the match
+     * @param out file receiving each game as it ends, or null
+     * @return the finished games in the order they were scheduled
+     */
+    public List<PdnGame> run(Path out) throws Exception {
+        List<Future<PdnGame>> futures = new ArrayList<>();
+        try (PdnWriter writer = out == null ? null : PdnWriter.create(out)) {
+            ExecutorService executor = newGameExecutor();
+            try {
+                for (int game = 0; game < openings * 2; game++) {
+                    int round = game;
+                    futures.add(executor.submit(() -> play(round, writer)));
+                }
+                List<PdnGame> games = new ArrayList<>();
+                for (Future<PdnGame> f : futures) {
+                    games.add(f.get());
+                }
+                return games;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Plays one game of the match
+     * @param round game number, even games give the first engine x
+     * @param writer writer for finished games, or null
+     * @return the finished game
+     */
+    private PdnGame play(int round, PdnWriter writer) throws InterruptedException, IOException {
+        PdnGame game = new PdnGame();
+        boolean firstIsX = (round & 1) == 0;
+        Engine x = firstIsX ? first : second;
+        Engine o = firstIsX ? second : first;
+        game.tags.put("Event", "Tournament");
+        game.tags.put("Round", String.valueOf(round + 1));
+        game.tags.put("Black", x.name);
+        game.tags.put("White", o.name);
+        Bitboard b = opening(round / 2);
+        game.start.set(b);
+        running.acquire();
+        try {
+            Search[] engines = {new Search(new TranspositionTable(x.hashMegabytes)),
+                    new Search(new TranspositionTable(o.hashMegabytes))};
+            Engine[] settings = {x, o};
+            game.result = PdnGame.DRAWN;
+            while (game.count < maxPlies) {
+                if (!MoveGenerator.hasMove(b, b.side)) {
+                    game.result = b.side == Bitboard.X ? PdnGame.O_WINS : PdnGame.X_WINS;
+                    break;
+                }
+                Engine engine = settings[b.side];
+                int move = engines[b.side].search(b, engine.depth, engine.millis);
+                b.make(move);
+                game.add(move);
+            }
+        } finally {
+            running.release();
+        }
+        record(game, firstIsX, writer);
+        return game;
+    }
+
+    /**
+     * Makes the starting position for an opening. The same number always
+     * gives the same position, and openings that leave a side without a
+     * move are not used.
+     * @param number opening number
+     * @return position after the random moves
+     */
+    private Bitboard opening(int number) {
+        int[] list = new int[MoveGenerator.MAX_MOVES];
+        for (int attempt = 0; ; attempt++) {
+            Random random = new Random(seed * 31 + number + (long) attempt * openings);
+            Bitboard b = Bitboard.initial();
+            int ply = 0;
+            for (; ply < openingPlies; ply++) {
+                int n = MoveGenerator.generate(b, list);
+                if (n == 0) {
+                    break;
+                }
+                b.make(list[random.nextInt(n)]);
+            }
+            if (ply == openingPlies && MoveGenerator.hasMove(b, b.side)) {
+                return b;
+            }
+        }
+    }
+
+    /**
+     * Adds a finished game to the score and writes it out
+     * @param game finished game
+     * @param firstIsX true if the first engine played x
+     * @param writer writer for finished games, or null
+     */
+    private synchronized void record(PdnGame game, boolean firstIsX, PdnWriter writer) throws IOException {
+        SearchStats.GLOBAL.addGame(game.count);
+        Events.GameEnd event = new Events.GameEnd();
+        if (event.shouldCommit()) {
+            event.result = PdnGame.resultText(game.result);
+            event.plies = game.count;
+            event.commit();
+        }
+        int result = firstIsX ? game.result : -game.result;
+        if (result > 0) {
+            wins++;
+        } else if (result < 0) {
+            losses++;
+        } else {
+            draws++;
+        }
+        if (writer != null) {
+            writer.write(game);
+            writer.flush();
+        }
+    }
+
+    /**
+     * @return games won by the first engine
+     */
+    public synchronized int getWins() {
+        return wins;
+    }
+
+    /**
+     * @return games drawn
+     */
+    public synchronized int getDraws() {
+        return draws;
+    }
+
+    /**
+     * @return games lost by the first engine
+     */
+    public synchronized int getLosses() {
+        return losses;
+    }
+
+    /**
+     * Converts a score to an Elo difference
+     * @param score points per game, between 0 and 1
+     * @return Elo difference, infinite for a score of 0 or 1
+     */
+    public static double elo(double score) {
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * Works out the Elo difference of the first engine and its 95%
+     * confidence interval from the spread of the game scores
+     * @param wins games won
+     * @param draws games drawn
+     * @param losses games lost
+     * @return Elo difference, lower bound and upper bound
+     */
+    public static double[] eloInterval(int wins, int draws, int losses) {
+        double n = wins + draws + losses;
+        if (n == 0) {
+            return new double[] {0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        }
+        double score = (wins + draws / 2.0) / n;
+        double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+                + losses * Math.pow(score, 2)) / n;
+        double margin = 1.96 * Math.sqrt(variance / n);
+        return new double[] {elo(score), elo(Math.max(0, score - margin)), elo(Math.min(1, score + margin))};
+    }
+
+    /**
+     * @return a summary of the match so far
+     */
+    public synchronized String report() {
+        double[] elo = eloInterval(wins, draws, losses);
+        return String.format("%s vs %s: +%d =%d -%d, Elo %.1f [%.1f, %.1f]",
+                first.name, second.name, wins, draws, losses, elo[0], elo[1], elo[2]);
+    }
+
+    /**
+     * Runs a match from the command line
+     * @param args two engines followed by options
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: java core.Tournament first second [--openings N] [--plies P] [--seed S]"
+                    + " [--concurrency C] [--max-plies M] [--out file]");
+            System.out.println("An engine is written depth:millis or depth:millis:hashMB");
+            return;
+        }
+        Engine first = Engine.parse(args[0]);
+        Engine second = Engine.parse(args[1]);
+        int openings = 50, plies = 4, concurrency = Runtime.getRuntime().availableProcessors(), maxPlies = 300;
+        long seed = 1;
+        Path out = null;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--openings": openings = Integer.parseInt(args[i + 1]); break;
+                case "--plies": plies = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                case "--concurrency": concurrency = Integer.parseInt(args[i + 1]); break;
+                case "--max-plies": maxPlies = Integer.parseInt(args[i + 1]); break;
+                case "--out": out = Paths.get(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        Tournament tournament = new Tournament(first, second, openings, plies, seed, maxPlies, concurrency);
+        tournament.run(out);
+        System.out.println(tournament.report() + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Class containing a fixed size transposition table for the search
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+/**
+ * Entries are packed into a flat long[] so the table holds no objects.
+ * Each bucket has two entries of two longs: the first entry is only
+ * replaced by a deeper search or an entry from an older search, the second
+ * is always replaced. An entry is stored as (key ^ data, data) and is only
+ * accepted when the two words XOR back to the probed key, so several
+ * search threads can share the table without locks; a torn write simply
+ * looks like a miss.
+ */
+public class TranspositionTable {
+
+    //Bound types stored with a score
+    public static final int UPPER = 1;
+    public static final int LOWER = 2;
+    public static final int EXACT = 3;
+
+    //Layout of the data word
+    private static final int SCORE_SHIFT = 28;
+    private static final int DEPTH_SHIFT = 44;
+    private static final int BOUND_SHIFT = 52;
+    private static final int AGE_SHIFT = 54;
+
+    private final long[] table;
+    private final int mask;
+    private int age;
+
+    /**
+     * Creates a table using about the given amount of memory
+     * @param megabytes size of the table in MB, rounded down to a power of two
+     */
+    public TranspositionTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        //A bucket is four longs, 32 bytes
+        long buckets = Long.highestOneBit(Math.min(bytes / 32, (Integer.MAX_VALUE - 8) / 4));
+        table = new long[(int) buckets * 4];
+        mask = (int) buckets - 1;
+    }
+
+    /**
+     * Empties the table
+     */
+    public void clear() {
+        java.util.Arrays.fill(table, 0);
+        age = 0;
+    }
+
+    /**
+     * Marks the start of a new search so entries from older searches are replaced first
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * @return number of entries the table can hold
+     */
+    public int capacity() {
+        return table.length / 2;
+    }
+
+    /**
+     * Looks up a position
+     * @param key Zobrist hash of the position
+     * @return packed data word or 0 if the position is not stored
+     */
+    public long probe(long key) {
+        int i = ((int) key & mask) << 2;
+        long data = table[i + 1];
+        if ((table[i] ^ data) == key && data != 0) {
+            return data;
+        }
+        data = table[i + 3];
+        if ((table[i + 2] ^ data) == key && data != 0) {
+            return data;
+        }
+        return 0;
+    }
+
+    /**
+     * Stores the result of searching a position
+     * @param key Zobrist hash of the position
+     * @param move best move found or Move.NONE
+     * @param score score of the position
+     * @param depth depth searched
+     * @param bound UPPER, LOWER or EXACT
+     * @return true if the entry replaced one for a different position
+     */
+    public boolean store(long key, int move, int score, int depth, int bound) {
+        int i = ((int) key & mask) << 2;
+        long old = table[i + 1];
+        boolean sameKey = (table[i] ^ old) == key;
+        int slot;
+        if (sameKey || old == 0 || depth >= depth(old) || age(old) != age) {
+            slot = i;
+        } else {
+            slot = i + 2;
+            old = table[i + 3];
+            sameKey = (table[i + 2] ^ old) == key;
+        }
+        //Keep the old best move if this search did not find one
+        if (move == Move.NONE && sameKey) {
+            move = move(old);
+        }
+        long data = (move & 0xFFFFFFFL)
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | ((long) Math.max(0, Math.min(depth, 255)) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) age << AGE_SHIFT);
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+        return !sameKey && old != 0;
+    }
+
+    /**
+     * @param data packed data word from probe
+     * @return stored best move
+     */
+    public static int move(long data) {
+        return (int) (data & 0xFFFFFFF);
+    }
+
+    /**
+     * @param data packed data word from probe
+     * @return stored score
+     */
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    /**
+     * @param data packed data word from probe
+     * @return stored depth
+     */
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    /**
+     * @param data packed data word from probe
+     * @return stored bound type
+     */
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    /**
+     * @param data packed data word from probe
+     * @return search number the entry was stored in
+     */
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & 0xFF;
+    }
+}
@@ -0,0 +1,317 @@
+/**
+ * Class containing the evaluation weight tuner
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fits the weights of Evaluation to the results of recorded games. Every
+ * quiet position of every game, one where neither side can jump, is kept
+ * as its Evaluation.features counts and the game's result; the weights are
+ * then moved to minimise the mean squared difference between each result
+ * and a logistic curve of the position's score, in the manner of the Texel
+ * tuning method. The scale of the curve is fitted first and then held, and
+ * the value of a man stays fixed so the other weights keep its units.
+ *
+ * Positions are stored as one byte per feature in a single array, so
+ * millions of them fit in a few tens of megabytes and a pass over them
+ * touches memory in order. The loss and its gradient are summed over
+ * slices of the array on a ForkJoinPool and the slices' sums are added up.
+ * Games written by Tournament make a good source of positions.
+ *
+ * Usage: java core.Tuner file.pdn... [--skip P] [--iterations N] [--rate R]
+ * [--threads N]
+ */
+public class Tuner {
+
+    //Positions summed by one task before it stops splitting
+    private static final int SLICE = 1 << 14;
+
+    //Adam moment decay rates
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+
+    private final int skip;
+    private final ForkJoinPool pool;
+
+    //Feature counts of each position, FEATURES bytes apiece
+    private byte[] features = new byte[Evaluation.FEATURES << 16];
+
+    //Result of each position's game in half points for x: 2 win, 1 draw, 0 loss
+    private byte[] results = new byte[1 << 16];
+    private int size;
+    private long games;
+
+    //Slope of the logistic curve per point of score
+    private double k = Math.log(10) / 400;
+
+    /**
+     * Creates a tuner
+     * @param skip number of plies at the start of each game left out, as
+     * they come from an opening book or a fixed opening
+     * @param threads number of threads summing the gradient
+     */
+    public Tuner(int skip, int threads) {
+        this.skip = skip;
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * @return number of positions stored
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of games read
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * @return slope of the logistic curve per point of score
+     */
+    public double getScale() {
+        return k;
+    }
+
+    /**
+     * Stores the quiet positions of a game, games without a result are skipped
+     * @param game valid game
+     */
+    public void addGame(PdnGame game) {
+        if (game.result != PdnGame.X_WINS && game.result != PdnGame.DRAWN && game.result != PdnGame.O_WINS) {
+            return;
+        }
+        int[] f = new int[Evaluation.FEATURES];
+        Bitboard b = game.start.copy();
+        for (int i = 0; i <= game.count; i++) {
+            if (i >= skip && MoveGenerator.jumpers(b, Bitboard.X) == 0 && MoveGenerator.jumpers(b, Bitboard.O) == 0) {
+                Evaluation.features(b, f);
+                add(f, game.result + 1);
+            }
+            if (i < game.count) {
+                b.make(game.moves[i]);
+            }
+        }
+        games++;
+    }
+
+    /**
+     * Stores the quiet positions of every valid game read
+     * @param reader reader positioned before the first game
+     */
+    public void addGames(PdnReader reader) throws IOException {
+        PdnGame game = new PdnGame();
+        while (reader.next(game)) {
+            if (game.isValid()) {
+                addGame(game);
+            }
+        }
+    }
+
+    /**
+     * Appends one position, growing the arrays when full
+     * @param f feature counts
+     * @param result half points for x
+     */
+    private void add(int[] f, int result) {
+        if (size == results.length) {
+            results = Arrays.copyOf(results, size * 2);
+            features = Arrays.copyOf(features, size * 2 * Evaluation.FEATURES);
+        }
+        int base = size * Evaluation.FEATURES;
+        for (int j = 0; j < Evaluation.FEATURES; j++) {
+            features[base + j] = (byte) f[j];
+        }
+        results[size++] = (byte) result;
+    }
+
+    /**
+     * Computes the mean loss of a set of weights
+     * @param w weight of each feature
+     * @return mean squared difference between results and predictions
+     */
+    public double loss(double[] w) {
+        return pool.invoke(new SumTask(w, 0, size, false))[Evaluation.FEATURES] / size;
+    }
+
+    /**
+     * Fits the slope of the logistic curve to the weights by golden
+     * section search, the weights are not changed
+     * @param w weight of each feature
+     * @return the slope found
+     */
+    public double fitScale(double[] w) {
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        double lo = 0.0001, hi = 0.1;
+        for (int i = 0; i < 40; i++) {
+            double a = hi - ratio * (hi - lo), b = lo + ratio * (hi - lo);
+            k = a;
+            double la = loss(w);
+            k = b;
+            double lb = loss(w);
+            if (la < lb) {
+                hi = b;
+            } else {
+                lo = a;
+            }
+        }
+        k = (lo + hi) / 2;
+        return k;
+    }
+
+    /**
+     * Moves the weights down the gradient of the loss with the Adam update
+     * @param w weight of each feature, changed in place
+     * @param iterations number of passes over the positions
+     * @param rate largest step taken by a weight in one pass
+     * @param report passes between progress lines, 0 for none
+     * @return the final mean loss
+     */
+    public double tune(double[] w, int iterations, double rate, int report) {
+        int n = Evaluation.FEATURES;
+        double[] m = new double[n];
+        double[] v = new double[n];
+        double loss = 0;
+        for (int t = 1; t <= iterations; t++) {
+            double[] sums = pool.invoke(new SumTask(w, 0, size, true));
+            loss = sums[n] / size;
+            for (int j = 0; j < n; j++) {
+                //The value of a man sets the units of every other weight
+                if (j == Evaluation.F_MAN) {
+                    continue;
+                }
+                double g = sums[j] / size;
+                m[j] = BETA1 * m[j] + (1 - BETA1) * g;
+                v[j] = BETA2 * v[j] + (1 - BETA2) * g * g;
+                double mHat = m[j] / (1 - Math.pow(BETA1, t));
+                double vHat = v[j] / (1 - Math.pow(BETA2, t));
+                w[j] -= rate * mHat / (Math.sqrt(vHat) + 1e-12);
+            }
+            if (report > 0 && t % report == 0) {
+                System.out.printf("Iteration %d loss %.6f%n", t, loss);
+            }
+        }
+        return loss;
+    }
+
+    /**
+     * Sums the loss, and the gradient if asked, over a range of positions.
+     * The result holds the gradient of each weight followed by the loss.
+     */
+    private class SumTask extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] w;
+        private final int from;
+        private final int to;
+        private final boolean gradient;
+
+        SumTask(double[] w, int from, int to, boolean gradient) {
+            this.w = w;
+            this.from = from;
+            this.to = to;
+            this.gradient = gradient;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > SLICE) {
+                int mid = (from + to) >>> 1;
+                SumTask right = new SumTask(w, mid, to, gradient);
+                right.fork();
+                double[] sums = new SumTask(w, from, mid, gradient).compute();
+                double[] other = right.join();
+                for (int j = 0; j < sums.length; j++) {
+                    sums[j] += other[j];
+                }
+                return sums;
+            }
+            int n = Evaluation.FEATURES;
+            double[] sums = new double[n + 1];
+            byte[] f = features;
+            for (int i = from; i < to; i++) {
+                int base = i * n;
+                double score = 0;
+                for (int j = 0; j < n; j++) {
+                    score += w[j] * f[base + j];
+                }
+                double predicted = 1 / (1 + Math.exp(-k * score));
+                double error = results[i] * 0.5 - predicted;
+                sums[n] += error * error;
+                if (gradient) {
+                    //Derivative of the squared error by the score, each weight scales it by its feature
+                    double d = -2 * error * predicted * (1 - predicted) * k;
+                    for (int j = 0; j < n; j++) {
+                        sums[j] += d * f[base + j];
+                    }
+                }
+            }
+            return sums;
+        }
+    }
+
+    /**
+     * Tunes the evaluation weights from the command line
+     * @param args PDN files followed by options
+     */
+    public static void main(String[] args) throws Exception {
+        int skip = 10, iterations = 500, threads = Runtime.getRuntime().availableProcessors();
+        double rate = 0.5;
+        int files = 0;
+        while (files < args.length && !args[files].startsWith("--")) {
+            files++;
+        }
+        if (files == 0) {
+            System.out.println("Usage: java core.Tuner file.pdn... [--skip P] [--iterations N] [--rate R]"
+                    + " [--threads N]");
+            return;
+        }
+        for (int i = files; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--skip": skip = Integer.parseInt(args[i + 1]); break;
+                case "--iterations": iterations = Integer.parseInt(args[i + 1]); break;
+                case "--rate": rate = Double.parseDouble(args[i + 1]); break;
+                case "--threads": threads = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        Tuner tuner = new Tuner(skip, threads);
+        for (int i = 0; i < files; i++) {
+            try (PdnReader reader = PdnReader.open(Paths.get(args[i]))) {
+                tuner.addGames(reader);
+            }
+        }
+        System.out.println("Read " + tuner.size() + " quiet positions from " + tuner.getGames() + " games in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+        if (tuner.size() == 0) {
+            return;
+        }
+        int[] current = Evaluation.weights();
+        double[] w = new double[current.length];
+        for (int j = 0; j < w.length; j++) {
+            w[j] = current[j];
+        }
+        tuner.fitScale(w);
+        double before = tuner.loss(w);
+        System.out.printf("Scale %.6f, loss with the current weights %.6f%n", tuner.getScale(), before);
+        start = System.nanoTime();
+        double after = tuner.tune(w, iterations, rate, Math.max(1, iterations / 10));
+        System.out.printf("Loss %.6f after %d iterations in %d ms%n", after, iterations,
+                (System.nanoTime() - start) / 1000000);
+        for (int j = 0; j < w.length; j++) {
+            System.out.printf("%-13s %5d -> %5d%n", Evaluation.NAMES[j], current[j], Math.round(w[j]));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Class containing the Zobrist keys used to hash checkers positions
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package core;
+
+public class Zobrist {
+
+    /**
+     * Keys indexed by piece kind then square. Kinds 0 and 1 are the men of
+     * X and O, kinds 2 and 3 are their kings.
+     */
+    public static final long[][] PIECE = new long[4][Bitboard.SQUARES];
+
+    /**
+     * Key mixed in when O is to move
+     */
+    public static final long SIDE;
+
+    static {
+        //Fixed seed so hashes written to books and databases stay valid between runs
+        long seed = 0x436865636B657273L;
+        for (int kind = 0; kind < 4; kind++) {
+            for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+                seed += 0x9E3779B97F4A7C15L;
+                PIECE[kind][sq] = mix(seed);
+            }
+        }
+        seed += 0x9E3779B97F4A7C15L;
+        SIDE = mix(seed);
+    }
+
+    /**
+     * SplitMix64 finaliser used to spread the seed sequence over 64 bits
+     * @param z value to mix
+     * @return mixed value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Hashes a board from scratch
+     * @param b board to hash
+     * @return Zobrist hash of the pieces and side to move
+     */
+    public static long hash(Bitboard b) {
+        long h = b.side == Bitboard.O ? SIDE : 0;
+        for (int side = Bitboard.X; side <= Bitboard.O; side++) {
+            int own = b.pieces[side];
+            while (own != 0) {
+                int sq = Integer.numberOfTrailingZeros(own);
+                own &= own - 1;
+                h ^= PIECE[(b.kings & (1 << sq)) != 0 ? side + 2 : side][sq];
+            }
+        }
+        return h;
+    }
+}
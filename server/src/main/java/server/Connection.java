@@ -0,0 +1,159 @@
+/**
+ * Class containing one client connection to the server
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+
+/**
+ * A client connection with its input and output buffers. Bytes are read
+ * into the input buffer as they arrive and split into lines; replies are
+ * queued in the output buffer and written whenever the socket can take
+ * them, so a slow client never blocks the selector thread. A client that
+ * stops reading is dropped once MAX_OUTPUT bytes are waiting for it, so it
+ * cannot make the server buffer without limit.
+ */
+public class Connection {
+
+    //Longest command line accepted, longer lines close the connection
+    static final int MAX_LINE = 1024;
+
+    //Most output queued for a client, more closes the connection
+    static final int MAX_OUTPUT = 64 * MAX_LINE;
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final ByteBuffer in = ByteBuffer.allocate(MAX_LINE);
+    private ByteBuffer out = ByteBuffer.allocate(256);
+
+    //Told about the connection once its output overflows, so the server can close it
+    private final Queue<Connection> overflowed;
+    private boolean dropped;
+
+    //Session being played and the side played in it
+    private Session session;
+    private int side = -1;
+
+    /**
+     * Creates a connection
+     * @param channel connected non-blocking socket
+     * @param key selection key of the socket
+     * @param overflowed queue the connection adds itself to when too much output is waiting
+     */
+    public Connection(SocketChannel channel, SelectionKey key, Queue<Connection> overflowed) {
+        this.channel = channel;
+        this.key = key;
+        this.overflowed = overflowed;
+    }
+
+    /**
+     * @return session being played, or null
+     */
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * @return side played in the session, or -1
+     */
+    public int getSide() {
+        return side;
+    }
+
+    /**
+     * @param session session joined, or null when leaving
+     * @param side side played, or -1 when leaving
+     */
+    public void setSession(Session session, int side) {
+        this.session = session;
+        this.side = side;
+    }
+
+    /**
+     * Reads whatever has arrived from the client
+     * @return false once the client has closed the connection
+     */
+    boolean read() throws IOException {
+        return channel.read(in) >= 0;
+    }
+
+    /**
+     * Takes the next complete line from the input buffer
+     * @return the line without its line break, or null if no line is complete
+     * @throws IOException if the client sent a line longer than MAX_LINE
+     */
+    String nextLine() throws IOException {
+        for (int i = 0; i < in.position(); i++) {
+            if (in.get(i) == '\n') {
+                int end = i > 0 && in.get(i - 1) == '\r' ? i - 1 : i;
+                String line = new String(in.array(), 0, end, StandardCharsets.US_ASCII);
+                in.flip();
+                in.position(i + 1);
+                in.compact();
+                return line;
+            }
+        }
+        if (!in.hasRemaining()) {
+            throw new IOException("Line too long");
+        }
+        return null;
+    }
+
+    /**
+     * Queues a line for the client, lines are discarded once the output has overflowed
+     * @param line text without the line break
+     */
+    public void send(String line) {
+        if (dropped) {
+            return;
+        }
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+        if (out.remaining() < bytes.length) {
+            if (out.position() + bytes.length > MAX_OUTPUT) {
+                dropped = true;
+                overflowed.add(this);
+                return;
+            }
+            ByteBuffer larger = ByteBuffer.allocate(Math.min(MAX_OUTPUT,
+                    Math.max(out.capacity() * 2, out.position() + bytes.length)));
+            out.flip();
+            larger.put(out);
+            out = larger;
+        }
+        out.put(bytes);
+        if (key.isValid()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Writes as much queued output as the socket will take
+     */
+    void write() throws IOException {
+        out.flip();
+        channel.write(out);
+        out.compact();
+        if (out.position() == 0) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Closes the socket
+     */
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            //Nothing more can be sent to the client
+        }
+    }
+}
@@ -0,0 +1,423 @@
+/**
+ * Class containing the multi-session game server
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package server;
+
+import core.Bitboard;
+import core.Move;
+import core.Rules.GameStatus;
+import core.Rules.MoveStatus;
+import core.Search;
+import core.SearchStats;
+import core.TranspositionTable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hosts any number of games for clients connecting over a local TCP socket.
+ * One selector thread does all socket I/O and owns every session, so games
+ * need no locking and an idle session costs only its board. The computer's
+ * moves are searched on a fixed pool of worker threads with a bounded
+ * queue; searches that do not fit in the queue wait on the selector thread
+ * until a worker is free, so a burst of slow searches delays other
+ * computer moves but never the commands of other clients.
+ *
+ * The protocol is one command per line, answered with one or more lines:
+ *   NEW [COMPUTER [X|O] | HUMAN]  start a game, against the computer by
+ *                                 default, playing x unless O is given
+ *   JOIN id                       take the free side of a game between people
+ *   MOVE move                     play a move such as 3a-4b or 11-15
+ *   BOARD                         show the position as PDN FEN
+ *   LEAVE                         leave the current game
+ *   QUIT                          close the connection
+ * Replies are GAME id side, BOARD fen, TURN side, MOVED side move,
+ * JOINED side, LEFT side, OVER X_WINS or O_WINS, and ERROR code message.
+ *
+ * Search statistics are published over JMX as core.SearchStats, and
+ * --stats prints what the searches did every so many seconds.
+ *
+ * Usage: java server.GameServer [--port P] [--workers N] [--queue N]
+ * [--depth D] [--millis M] [--hash MB] [--stats seconds]
+ */
+public class GameServer {
+
+    public static final int DEFAULT_PORT = 7878;
+
+    /**
+     * A finished search waiting to be played on the selector thread
+     */
+    private static class Result {
+        final Session session;
+        final int plies;
+        final int move;
+
+        Result(Session session, int plies, int move) {
+            this.session = session;
+            this.plies = plies;
+            this.move = move;
+        }
+    }
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Map<Integer, Session> sessions = new HashMap<>();
+
+    //Connections of clients that stopped reading their replies
+    private final Queue<Connection> overflowed = new ArrayDeque<>();
+    private int nextId = 1;
+
+    //Computer moves
+    private final ThreadPoolExecutor workers;
+    private final ThreadLocal<Search> searches;
+    private final Queue<Result> results = new ConcurrentLinkedQueue<>();
+    private final Queue<Session> waiting = new ArrayDeque<>();
+    private final int depth;
+    private final long millis;
+
+    /**
+     * Opens the server socket on the loopback address
+     * @param port port to listen on, 0 for any free port
+     * @param threads number of worker threads searching computer moves
+     * @param queue number of searches that may wait for a worker
+     * @param depth deepest iteration searched per computer move
+     * @param millis time limit per computer move in milliseconds
+     * @param hashMegabytes size of each worker's transposition table
+     */
+    public GameServer(int port, int threads, int queue, int depth, long millis, int hashMegabytes) throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queue));
+        searches = ThreadLocal.withInitial(() -> new Search(new TranspositionTable(hashMegabytes)));
+        this.depth = depth;
+        this.millis = millis;
+    }
+
+    /**
+     * @return port the server is listening on
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * @return number of games being hosted
+     */
+    public int getSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * Serves clients until the thread is interrupted
+     */
+    public void run() throws IOException {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                selector.select();
+                playResults();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection c = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            if (!c.read()) {
+                                disconnect(c);
+                                continue;
+                            }
+                            String line;
+                            while (key.isValid() && (line = c.nextLine()) != null) {
+                                handle(c, line.trim());
+                            }
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            c.write();
+                        }
+                    } catch (IOException e) {
+                        disconnect(c);
+                    }
+                }
+                //Leaving may send to other connections, which can overflow in turn
+                Connection c;
+                while ((c = overflowed.poll()) != null) {
+                    disconnect(c);
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+            selector.close();
+            server.close();
+        }
+    }
+
+    /**
+     * Accepts every waiting client
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key, overflowed));
+        }
+    }
+
+    /**
+     * Carries out one command
+     * @param c connection that sent the command
+     * @param line command line
+     */
+    private void handle(Connection c, String line) {
+        String[] words = line.split("\\s+", 3);
+        String command = words[0].toUpperCase();
+        Session session = c.getSession();
+        switch (command) {
+            case "":
+                break;
+            case "NEW": {
+                leave(c);
+                boolean human = words.length > 1 && words[1].equalsIgnoreCase("HUMAN");
+                int side = words.length > 2 && words[2].equalsIgnoreCase("O") ? Bitboard.O : Bitboard.X;
+                Session created = new Session(nextId++, human ? -1 : side ^ 1);
+                sessions.put(created.getId(), created);
+                created.setPlayer(side, c);
+                c.setSession(created, side);
+                c.send("GAME " + created.getId() + " " + Bitboard.MEN[side]);
+                c.send("BOARD " + created.getGame().getBoard().toFen());
+                announceTurn(created);
+                break;
+            }
+            case "JOIN": {
+                Session joined = null;
+                try {
+                    joined = words.length > 1 ? sessions.get(Integer.parseInt(words[1])) : null;
+                } catch (NumberFormatException e) {
+                    //Reported below as an unknown game
+                }
+                if (joined == null || joined == session) {
+                    c.send("ERROR NO_GAME No game with that number is open to join.");
+                    break;
+                }
+                int side = joined.freeSide();
+                if (side < 0) {
+                    c.send("ERROR GAME_FULL Both sides of that game are taken.");
+                    break;
+                }
+                leave(c);
+                joined.setPlayer(side, c);
+                c.setSession(joined, side);
+                c.send("GAME " + joined.getId() + " " + Bitboard.MEN[side]);
+                c.send("BOARD " + joined.getGame().getBoard().toFen());
+                joined.broadcast("JOINED " + Bitboard.MEN[side]);
+                announceTurn(joined);
+                break;
+            }
+            case "MOVE": {
+                if (session == null) {
+                    c.send("ERROR NO_GAME Start or join a game first.");
+                    break;
+                }
+                if (session.getGame().getStatus() == GameStatus.IN_PROGRESS && session.getGame().getSide() != c.getSide()) {
+                    c.send("ERROR NOT_YOUR_TURN Wait for the other side to move.");
+                    break;
+                }
+                MoveStatus status = words.length > 1 ? session.getGame().play(words[1]) : MoveStatus.MALFORMED;
+                if (status != MoveStatus.OK) {
+                    c.send("ERROR " + status + " " + status.getMessage());
+                    break;
+                }
+                moved(session);
+                break;
+            }
+            case "BOARD":
+                if (session == null) {
+                    c.send("ERROR NO_GAME Start or join a game first.");
+                } else {
+                    c.send("BOARD " + session.getGame().getBoard().toFen());
+                }
+                break;
+            case "LEAVE":
+                leave(c);
+                break;
+            case "QUIT":
+                disconnect(c);
+                break;
+            default:
+                c.send("ERROR UNKNOWN_COMMAND Commands are NEW, JOIN, MOVE, BOARD, LEAVE and QUIT.");
+        }
+    }
+
+    /**
+     * Tells the players about the move just played and what happens next
+     * @param session session in which a move was played
+     */
+    private void moved(Session session) {
+        int side = session.getGame().getSide() ^ 1;
+        session.broadcast("MOVED " + Bitboard.MEN[side] + " " + Move.toString(session.getGame().getLastMove()));
+        announceTurn(session);
+    }
+
+    /**
+     * Announces whose turn it is or how the game ended, and starts the
+     * computer's search when it is the computer's turn
+     * @param session session to announce
+     */
+    private void announceTurn(Session session) {
+        GameStatus status = session.getGame().getStatus();
+        if (status != GameStatus.IN_PROGRESS) {
+            session.broadcast("OVER " + status);
+            return;
+        }
+        session.broadcast("TURN " + Bitboard.MEN[session.getGame().getSide()]);
+        if (session.needsSearch()) {
+            session.setSearching(true);
+            if (!waiting.isEmpty() || !submit(session)) {
+                waiting.add(session);
+            }
+        }
+    }
+
+    /**
+     * Hands the computer's move in a session to the worker pool
+     * @param session session whose computer is to move
+     * @return false if the pool's queue is full
+     */
+    private boolean submit(Session session) {
+        Bitboard board = session.getGame().getBoard().copy();
+        int plies = session.getGame().getPlies();
+        try {
+            workers.execute(() -> {
+                //A result is posted even if the search fails, so the session does not wait forever
+                int move = Move.NONE;
+                try {
+                    move = searches.get().search(board, depth, millis);
+                } catch (RuntimeException | Error e) {
+                    //The failed search may be left part way through, so this worker starts a new one
+                    searches.remove();
+                    throw e;
+                } finally {
+                    results.add(new Result(session, plies, move));
+                    selector.wakeup();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Plays the moves found by the workers and queues waiting searches
+     */
+    private void playResults() {
+        Result r;
+        while ((r = results.poll()) != null) {
+            Session session = r.session;
+            session.setSearching(false);
+            //The game may have been abandoned while the computer was thinking
+            if (sessions.get(session.getId()) != session || session.getGame().getPlies() != r.plies) {
+                continue;
+            }
+            if (r.move == Move.NONE) {
+                session.broadcast("ERROR SEARCH_FAILED The computer could not find a move.");
+                continue;
+            }
+            session.getGame().play(r.move);
+            moved(session);
+        }
+        while (!waiting.isEmpty()) {
+            Session session = waiting.peek();
+            if (sessions.get(session.getId()) == session && !submit(session)) {
+                break;
+            }
+            waiting.poll();
+        }
+    }
+
+    /**
+     * Takes a connection out of its session, closing the session once
+     * nobody is left in it
+     * @param c connection leaving
+     */
+    private void leave(Connection c) {
+        Session session = c.getSession();
+        if (session == null) {
+            return;
+        }
+        session.setPlayer(c.getSide(), null);
+        session.broadcast("LEFT " + Bitboard.MEN[c.getSide()]);
+        c.setSession(null, -1);
+        if (session.isEmpty()) {
+            sessions.remove(session.getId());
+        }
+    }
+
+    /**
+     * Closes a connection and leaves its session
+     * @param c connection to close
+     */
+    private void disconnect(Connection c) {
+        leave(c);
+        c.close();
+    }
+
+    /**
+     * Starts a server from the command line
+     * @param args options
+     */
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT, threads = Runtime.getRuntime().availableProcessors(), queue = 256, depth = 64, hash = 16;
+        int stats = 0;
+        long millis = 1000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[i + 1]); break;
+                case "--workers": threads = Integer.parseInt(args[i + 1]); break;
+                case "--queue": queue = Integer.parseInt(args[i + 1]); break;
+                case "--depth": depth = Integer.parseInt(args[i + 1]); break;
+                case "--millis": millis = Long.parseLong(args[i + 1]); break;
+                case "--hash": hash = Integer.parseInt(args[i + 1]); break;
+                case "--stats": stats = Integer.parseInt(args[i + 1]); break;
+                default:
+                    System.out.println("Usage: java server.GameServer [--port P] [--workers N] [--queue N]"
+                            + " [--depth D] [--millis M] [--hash MB] [--stats seconds]");
+                    return;
+            }
+        }
+        GameServer server = new GameServer(port, threads, queue, depth, millis, hash);
+        System.out.println("Checkers server listening on port " + server.getPort());
+        SearchStats.register();
+        if (stats > 0) {
+            SearchStats.GLOBAL.report(stats * 1000L, s -> System.out.println("Stats: " + s));
+        }
+        server.run();
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Class containing one game hosted by the server
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package server;
+
+import core.Bitboard;
+import core.Game;
+import core.Rules.GameStatus;
+
+/**
+ * A game hosted by the server and the connections playing it. Sessions are
+ * only touched by the selector thread, so they need no locking; a search
+ * for the computer's move works on a copy of the board and hands its move
+ * back to the selector thread to be played.
+ */
+public class Session {
+
+    private final int id;
+    private final Game game = new Game();
+
+    //Connection playing each side, null for a free seat or the computer
+    private final Connection[] players = new Connection[2];
+
+    //Side played by the computer or -1 for a game between two people
+    private final int computer;
+
+    //Set while the computer's move is queued or being searched
+    private boolean searching;
+
+    /**
+     * Creates a session
+     * @param id number clients use to join the session
+     * @param computer side played by the computer, or -1 for none
+     */
+    public Session(int id, int computer) {
+        this.id = id;
+        this.computer = computer;
+    }
+
+    /**
+     * @return number clients use to join the session
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return the game being played
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * @return side played by the computer, or -1 for none
+     */
+    public int getComputer() {
+        return computer;
+    }
+
+    /**
+     * @param side X or O
+     * @return connection playing the side, or null
+     */
+    public Connection getPlayer(int side) {
+        return players[side];
+    }
+
+    /**
+     * @param side X or O
+     * @param player connection taking the side, or null to free the seat
+     */
+    public void setPlayer(int side, Connection player) {
+        players[side] = player;
+    }
+
+    /**
+     * @return a side nobody has taken yet, or -1 if the game is full
+     */
+    public int freeSide() {
+        for (int side = Bitboard.X; side <= Bitboard.O; side++) {
+            if (players[side] == null && side != computer) {
+                return side;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return true once every connection has left
+     */
+    public boolean isEmpty() {
+        return players[Bitboard.X] == null && players[Bitboard.O] == null;
+    }
+
+    /**
+     * @return true if it is the computer's turn and no search has been started
+     */
+    public boolean needsSearch() {
+        return game.getSide() == computer && !searching && game.getStatus() == GameStatus.IN_PROGRESS;
+    }
+
+    /**
+     * @return true while the computer's move is being worked out
+     */
+    public boolean isSearching() {
+        return searching;
+    }
+
+    /**
+     * @param searching true while the computer's move is being worked out
+     */
+    public void setSearching(boolean searching) {
+        this.searching = searching;
+    }
+
+    /**
+     * Sends a line to every connection in the session
+     * @param line text without the line break
+     */
+    public void broadcast(String line) {
+        for (Connection c : players) {
+            if (c != null) {
+                c.send(line);
+            }
+        }
+    }
+}
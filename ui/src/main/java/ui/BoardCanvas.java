@@ -0,0 +1,181 @@
+/**
+ * Class containing the canvas the checkers board is drawn on
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ */
+package ui;
+
+import core.Bitboard;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws the board on a single canvas instead of a node per square and per
+ * piece. The canvas remembers what it last drew, so each call to draw
+ * only paints the squares whose piece or selection changed, found by
+ * XORing the old and new masks; replaying a long game therefore costs a
+ * few squares per move and adds nothing to the scene graph. Resizing the
+ * canvas repaints everything. Squares a move can continue to are drawn in
+ * a lighter green.
+ */
+public class BoardCanvas extends Canvas {
+
+    //What was last drawn on each playable square
+    private int x;
+    private int o;
+    private int kings;
+    private int selected;
+    private int highlighted;
+    private boolean drawn;
+
+    /**
+     * Creates a board canvas
+     * @param size starting width and height in pixels
+     */
+    public BoardCanvas(double size) {
+        super(size, size);
+    }
+
+    @Override
+    public boolean isResizable() {
+        return true;
+    }
+
+    @Override
+    public double prefWidth(double height) {
+        return getWidth();
+    }
+
+    @Override
+    public double prefHeight(double width) {
+        return getHeight();
+    }
+
+    @Override
+    public double minWidth(double height) {
+        return 80;
+    }
+
+    @Override
+    public double minHeight(double width) {
+        return 80;
+    }
+
+    @Override
+    public double maxWidth(double height) {
+        return Double.MAX_VALUE;
+    }
+
+    @Override
+    public double maxHeight(double width) {
+        return Double.MAX_VALUE;
+    }
+
+    @Override
+    public void resize(double width, double height) {
+        if (width != getWidth() || height != getHeight()) {
+            setWidth(width);
+            setHeight(height);
+            drawn = false;
+            draw(x, o, kings, selected, highlighted);
+        }
+    }
+
+    /**
+     * Draws a position
+     * @param b position to show
+     * @param selected mask of the squares chosen for the move being entered
+     * @param highlighted mask of the squares the move can go to next
+     */
+    public void draw(Bitboard b, int selected, int highlighted) {
+        draw(b.pieces[Bitboard.X], b.pieces[Bitboard.O], b.kings, selected, highlighted);
+    }
+
+    /**
+     * Paints the squares that differ from what was last drawn
+     * @param newX mask of x pieces
+     * @param newO mask of o pieces
+     * @param newKings mask of kings
+     * @param newSelected mask of selected squares
+     * @param newHighlighted mask of highlighted squares
+     */
+    private void draw(int newX, int newO, int newKings, int newSelected, int newHighlighted) {
+        GraphicsContext g = getGraphicsContext2D();
+        int changed = (x ^ newX) | (o ^ newO) | (kings ^ newKings) | (selected ^ newSelected)
+                | (highlighted ^ newHighlighted);
+        if (!drawn) {
+            //Yellow squares never change, they are only painted with the whole board
+            g.setFill(Color.YELLOW);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    if (Bitboard.square(row, col) < 0) {
+                        outline(g, row, col);
+                    }
+                }
+            }
+            changed = -1;
+            drawn = true;
+        }
+        x = newX;
+        o = newO;
+        kings = newKings;
+        selected = newSelected;
+        highlighted = newHighlighted;
+        while (changed != 0) {
+            int sq = Integer.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+            paint(g, sq);
+        }
+    }
+
+    /**
+     * Paints one playable square and its piece
+     * @param g graphics of the canvas
+     * @param sq playable square
+     */
+    private void paint(GraphicsContext g, int sq) {
+        int bit = 1 << sq;
+        int row = Bitboard.row(sq), col = Bitboard.col(sq);
+        double w = getWidth() / 8, h = getHeight() / 8;
+        double left = (col - 1) * w, top = (8 - row) * h;
+        g.setFill((selected & bit) != 0 ? Color.BLACK : (highlighted & bit) != 0 ? Color.LIMEGREEN : Color.GREEN);
+        g.fillRect(left, top, w, h);
+        outline(g, row, col);
+        if (((x | o) & bit) == 0) {
+            return;
+        }
+        boolean king = (kings & bit) != 0;
+        g.setFill((x & bit) != 0 ? Color.RED : Color.WHITE);
+        g.fillOval(left + 10, top + 10, w - 20, h - 20);
+        g.setStroke(king ? Color.GOLD : Color.BLACK);
+        g.setLineWidth(king ? 4 : 1);
+        g.strokeOval(left + 10, top + 10, w - 20, h - 20);
+    }
+
+    /**
+     * Draws the border of a square
+     * @param g graphics of the canvas
+     * @param row board row, 1 at the bottom
+     * @param col board column, 1 at the left
+     */
+    private void outline(GraphicsContext g, int row, int col) {
+        double w = getWidth() / 8, h = getHeight() / 8;
+        g.setStroke(Color.BLACK);
+        g.setLineWidth(1);
+        g.strokeRect((col - 1) * w + 0.5, (8 - row) * h + 0.5, w - 1, h - 1);
+    }
+
+    /**
+     * Finds the square under a point
+     * @param px x coordinate within the canvas
+     * @param py y coordinate within the canvas
+     * @return playable square, or -1 for a yellow square or a point off the board
+     */
+    public int squareAt(double px, double py) {
+        int col = (int) (px / (getWidth() / 8)) + 1;
+        int row = 8 - (int) (py / (getHeight() / 8));
+        return Bitboard.square(row, col);
+    }
+}
@@ -0,0 +1,320 @@
+/**
+ * Class containing graphical user interface for Checkers game
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.3
+ *
+ */package ui;
+
+import core.Bitboard;
+import core.CheckersComputerPlayer;
+import core.Game;
+import core.Move;
+import core.ParallelSearch;
+import core.Rules;
+import core.Rules.GameStatus;
+import core.Rules.MoveStatus;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.layout.HBox;
+import javafx.scene.text.Font;
+import javafx.stage.Stage;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.layout.BorderPane;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Class creates a graphical user interface for a checkers game. The rules
+ * live in core.Game; clicks build up the path of a move and the game
+ * decides whether it is legal.
+ *
+ * The legal moves of each position come from the game, which works them
+ * out once per turn; each click is checked against them and the squares
+ * the move can go to next are highlighted.
+ *
+ * The computer can play White. Its search runs on a background thread so
+ * the window keeps drawing while it thinks; each completed depth is shown
+ * as it arrives and the move is handed back to the JavaFX thread with
+ * Platform.runLater. Undo, redo or switching the computer off cancel a
+ * search in progress, and Move now plays the best move found so far.
+ * The window searches with an engine of its own, and a stop is recorded
+ * in searchId and stopId as well as sent to the engine, because a stop
+ * sent just before the search starts is cleared when it starts; the
+ * listener checks them after every iteration and stops the search again.
+ */
+public class CheckersGUI extends Application {
+
+    //Game being played, holds the position and decides what is legal
+    private final Game game = new Game();
+
+    //Squares clicked so far for the move being entered
+    private final int[] path = new int[Rules.MAX_PATH];
+    private int pathLength = 0;
+
+    //Canvas the board is drawn on
+    private final BoardCanvas board = new BoardCanvas(400);
+
+    //Create and initialize a status label
+    private Label turnlbl = new Label();
+
+    //Buttons taking back and replaying moves
+    private final Button undo = new Button("Undo");
+    private final Button redo = new Button("Redo");
+
+    //Computer opponent, it plays White when selected
+    private static final int COMPUTER = Bitboard.O;
+    private final CheckBox computer = new CheckBox("Computer plays White");
+    private final Button moveNow = new Button("Move now");
+    private final Label thinkinglbl = new Label();
+
+    //Engine searching the computer's moves, used only by this window
+    private final ParallelSearch engine = CheckersComputerPlayer.newEngine();
+
+    //Runs the computer's searches so the JavaFX thread never waits on one
+    private final ExecutorService searcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "computer player");
+        t.setDaemon(true);
+        return t;
+    });
+
+    //Number of the current search, a result from any other search is thrown away
+    private volatile int searchId;
+
+    //Number of the search Move now was pressed for
+    private volatile int stopId;
+    private boolean thinking;
+
+    /**
+     * Creates the vosuals for the GUI
+     * @param primaryStage stage for game board and pieces to be placed
+     */
+    public void start(Stage primaryStage) {
+
+        //Clicks on the yellow squares are ignored
+        board.setOnMouseClicked(e -> {
+            int sq = board.squareAt(e.getX(), e.getY());
+            if (sq >= 0) {
+                handleClick(sq);
+            }
+        });
+        refresh("");
+
+        //Add border pane to the primary stage
+        BorderPane borderPane = new BorderPane(); //create new border pane
+        borderPane.setCenter(board); //add board to center of border Pane
+        borderPane.setBottom(turnlbl);
+        turnlbl.setFont(new Font("Arial", 16));
+
+        //Undo and redo skip over the computer's moves so it is a person's turn afterwards
+        undo.setOnAction(e -> {
+            cancelComputer();
+            pathLength = 0;
+            game.undo();
+            while (isComputerTurn() && game.canUndo()) {
+                game.undo();
+            }
+            refresh("");
+            startComputer();
+        });
+        redo.setOnAction(e -> {
+            cancelComputer();
+            pathLength = 0;
+            game.redo();
+            while (isComputerTurn() && game.canRedo()) {
+                game.redo();
+            }
+            refresh("");
+            startComputer();
+        });
+        computer.setOnAction(e -> {
+            cancelComputer();
+            pathLength = 0;
+            refresh("");
+            startComputer();
+        });
+        moveNow.setOnAction(e -> {
+            stopId = searchId;
+            engine.stop();
+        });
+        borderPane.setTop(new HBox(5, undo, redo, computer, moveNow, thinkinglbl));
+
+        //Create scene
+        Scene scene = new Scene(borderPane, 450, 450);
+        primaryStage.setScene(scene); // Place the scene in the stage
+
+        primaryStage.show(); //Display the stage
+    }
+
+    /**
+     * Stops the computer's search when the window closes
+     */
+    @Override
+    public void stop() {
+        cancelComputer();
+        searcher.shutdownNow();
+        engine.shutdown();
+    }
+
+    /**
+     * @return true if the computer is playing and it is its move
+     */
+    private boolean isComputerTurn() {
+        return computer.isSelected() && game.getSide() == COMPUTER;
+    }
+
+    /**
+     * Starts the computer's search if it is the computer's move
+     */
+    private void startComputer() {
+        if (thinking || !isComputerTurn() || game.getStatus() != GameStatus.IN_PROGRESS) {
+            return;
+        }
+        thinking = true;
+        int id = ++searchId;
+        Bitboard position = game.getBoard().copy();
+        thinkinglbl.setText("Thinking...");
+        refresh("");
+        searcher.execute(() -> {
+            //A search cancelled before it started is skipped
+            if (id != searchId) {
+                return;
+            }
+            engine.setListener(search -> {
+                //A stop sent before the search started was lost, so it is sent again
+                if (id != searchId || id == stopId) {
+                    engine.stop();
+                    return;
+                }
+                String text = "Depth " + search.getDepth() + ": " + Move.toString(search.getBestMove());
+                Platform.runLater(() -> {
+                    if (id == searchId) {
+                        thinkinglbl.setText(text);
+                    }
+                });
+            });
+            int move;
+            try {
+                move = CheckersComputerPlayer.choose_move(engine, position);
+            } catch (Exception ex) {
+                move = Move.NONE;
+            }
+            int found = move;
+            Platform.runLater(() -> finishComputer(id, found));
+        });
+    }
+
+    /**
+     * Plays the computer's move on the JavaFX thread
+     * @param id number of the search that found the move
+     * @param move move found or Move.NONE
+     */
+    private void finishComputer(int id, int move) {
+        if (id != searchId) {
+            return;
+        }
+        thinking = false;
+        thinkinglbl.setText("");
+        if (move != Move.NONE) {
+            game.play(move);
+            refresh("Computer played " + Move.toString(move) + ".");
+        } else {
+            refresh("");
+        }
+    }
+
+    /**
+     * Cancels the computer's search, whatever it finds is thrown away
+     */
+    private void cancelComputer() {
+        if (thinking) {
+            searchId++;
+            thinking = false;
+            engine.stop();
+            thinkinglbl.setText("");
+        }
+    }
+
+    /**
+     * Redraws the squares that changed and updates the status label
+     * @param message text shown before the turn, may be empty
+     */
+    private void refresh(String message) {
+        Bitboard b = game.getBoard();
+        int selected = 0;
+        for (int i = 0; i < pathLength; i++) {
+            selected |= 1 << path[i];
+        }
+        int highlighted = pathLength == 0 || isComputerTurn() ? 0 : game.nextSquares(path, pathLength);
+        board.draw(b, selected, highlighted);
+        GameStatus status = game.getStatus();
+        String text;
+        if (status == GameStatus.IN_PROGRESS) {
+            text = name(game.getSide()) + "'s turn. R: " + b.count(Bitboard.X) + "  W: " + b.count(Bitboard.O);
+        } else {
+            text = name(status == GameStatus.X_WINS ? Bitboard.X : Bitboard.O) + " has won the game!";
+        }
+        turnlbl.setText(message.isEmpty() ? text : message + " " + text);
+        undo.setDisable(!game.canUndo());
+        redo.setDisable(!game.canRedo());
+        moveNow.setDisable(!thinking);
+    }
+
+    /**
+     * @param side X or O
+     * @return colour name shown for the side
+     */
+    private static String name(int side) {
+        return side == Bitboard.X ? "Red" : "White";
+    }
+
+    /**
+     * Handles a click on a playable square
+     * @param sq square that was clicked
+     */
+    private void handleClick(int sq) {
+        if (game.getStatus() != GameStatus.IN_PROGRESS || isComputerTurn()) {
+            return;
+        }
+        Bitboard b = game.getBoard();
+        int bit = 1 << sq;
+        //Choose a piece to move
+        if (pathLength == 0) {
+            if ((game.nextSquares(path, 0) & bit) != 0) {
+                path[pathLength++] = sq;
+                refresh("");
+            } else {
+                refresh((b.pieces[b.side] & bit) != 0 ? "That piece cannot move." : "");
+            }
+            return;
+        }
+        //Clicking the chosen piece again puts it back
+        if (pathLength == 1 && sq == path[0]) {
+            pathLength = 0;
+            refresh("");
+            return;
+        }
+        //Before a jump has begun another piece that can move may be chosen instead
+        if (pathLength == 1 && (game.nextSquares(path, 0) & bit) != 0) {
+            path[0] = sq;
+            refresh("");
+            return;
+        }
+        //The path is matched against the legal moves the game keeps for the position
+        path[pathLength++] = sq;
+        MoveStatus status = game.play(path, pathLength);
+        if (status == MoveStatus.OK) {
+            pathLength = 0;
+            refresh("");
+            startComputer();
+        } else if (status == MoveStatus.INCOMPLETE_JUMP) {
+            refresh("Select the next jump.");
+        } else {
+            pathLength--;
+            refresh(status.getMessage());
+        }
+    }
+}
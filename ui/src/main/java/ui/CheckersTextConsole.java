@@ -0,0 +1,122 @@
+/**
+ * Class containing the UI for a Checkers game
+ * Author: Jared Rosenthal
+ * Version: Checkers 1.2
+ */
+
+package ui;
+import java.util.*;
+import core.CheckersLogic;
+import core.CheckersLogic.Player;
+import core.CheckersComputerPlayer;
+import core.Bitboard;
+import core.Game;
+import core.Move;
+import core.Rules.GameStatus;
+import core.Rules.MoveStatus;
+import javafx.application.Application;
+
+import java.io.*;
+
+public class CheckersTextConsole{
+
+    public static char gameType = 'x';
+
+    public static void main(String[] args) throws Exception {
+        //Create Scanner
+        Scanner in = new Scanner(System.in);
+
+        char game_layout = 't';
+        System.out.println("Enter 't' for text console or 'g' for graphical user" +
+                "interface.");
+        game_layout = in.next().charAt(0);
+
+        if(game_layout == 'g'){
+            Application.launch(CheckersGUI.class);
+
+        }
+        else {
+
+            //Create game and print starting board
+            Game game = new Game();
+            System.out.print(CheckersLogic.board_to_string(game.getBoard().toChars()));
+
+
+            //Create Player objects
+            Player[] players = new Player[2];
+            Player playerx = new Player("Player X", 'x');
+            Player playery = new Player("Player O", 'o');
+            players[0] = playerx;
+            players[1] = playery;
+
+
+            //Prompt to begin game
+            while(gameType != 'c' && gameType != 'p') {
+                gameType = in.next().charAt(0);
+                System.out.println("Begin Game. ");
+                if (gameType == 'c') {
+                    playery.user = gameType;
+                } else if (gameType == 'p') {
+                    playery.user = gameType;
+                }
+                else{
+                    System.out.println("Enter a valid option.");
+                }
+            }
+
+            //The game keeps its status up to date as moves are played
+            while (game.getStatus() == GameStatus.IN_PROGRESS) {
+                Player player = players[game.getSide()];
+                System.out.print(CheckersLogic.board_to_string(game.getBoard().toChars()));
+                //Prompt for player move
+                System.out.println(player.name + " - your turn.\n");
+                System.out.println("Choose a cell position of piece to be moved and the new position. e.g., 3a-4b."
+                        + " For a multiple jump enter every square, e.g. 3a-5c-7e."
+                        + " Enter 'undo' or 'redo' to take back or replay a move.");
+                //Read in player move
+                if (player.user == 'c') {
+                    //Computer moves come from the engine and are always legal
+                    int move = CheckersComputerPlayer.choose_move(game.getBoard());
+                    game.play(move);
+                    System.out.println(player.name + " played " + Move.toString(move) + " ("
+                            + CheckersComputerPlayer.search_info() + ")");
+                } else {
+                    String input = in.next();
+                    if (input.equalsIgnoreCase("undo")) {
+                        //Take back the computer's reply as well so it is a person's turn again
+                        if (game.undo() == Move.NONE) {
+                            System.out.println("There is no move to take back.");
+                        }
+                        while (players[game.getSide()].user == 'c' && game.canUndo()) {
+                            game.undo();
+                        }
+                    } else if (input.equalsIgnoreCase("redo")) {
+                        if (game.redo() == Move.NONE) {
+                            System.out.println("There is no move to replay.");
+                        }
+                        while (players[game.getSide()].user == 'c' && game.canRedo()) {
+                            game.redo();
+                        }
+                    } else {
+                        //Check if player move is valid, the turn only passes when it is played
+                        MoveStatus result = game.play(input);
+                        if (result != MoveStatus.OK) {
+                            System.out.println(result.getMessage());
+                        }
+                    }
+                }
+                for (Player p : players) {
+                    p.num_pieces = game.getPieces(p == playerx ? Bitboard.X : Bitboard.O);
+                }
+            }
+            System.out.print(CheckersLogic.board_to_string(game.getBoard().toChars()));
+            if (game.getStatus() == GameStatus.O_WINS) {
+                System.out.println(players[1].name + " Won the Game");
+            } else {
+                System.out.println(players[0].name + " Won the Game");
+            }
+        }
+    }
+}
+
+